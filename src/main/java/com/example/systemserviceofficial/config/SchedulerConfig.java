@@ -0,0 +1,101 @@
+package com.example.systemserviceofficial.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler cho các tác vụ blocking (JPA, JDBC) được gọi từ controller reactive,
+ * tránh chạy trên event-loop của reactor-netty.
+ * <p>
+ * Các endpoint có băm mật khẩu chạy trên {@code credentialScheduler} riêng: thread của nó
+ * phần lớn thời gian chỉ chờ pool BCrypt, nên được cấp đủ thread để hàng đợi của
+ * PasswordHashingService đầy trước (503 + Retry-After) và không chiếm chỗ của refresh/logout.
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Value("${app.scheduler.blocking.pool-size:20}")
+    private int poolSize;
+
+    @Value("${app.scheduler.blocking.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.scheduler.blocking.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    /** 0 = số thread BCrypt + hàng đợi BCrypt + số thread BCrypt (dư để pool BCrypt từ chối trước) */
+    @Value("${app.scheduler.credential.pool-size:0}")
+    private int credentialPoolSize;
+
+    @Value("${app.security.password-hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.security.password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService blockingExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            keepAliveSeconds,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            namedThreadFactory("blocking-io-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "blocking-io");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(@Qualifier("blockingExecutor") ExecutorService blockingExecutor) {
+        return Schedulers.fromExecutorService(blockingExecutor, "blocking-io");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService credentialExecutor(MeterRegistry meterRegistry) {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        int size = credentialPoolSize > 0 ? credentialPoolSize : 2 * threads + hashingQueueCapacity;
+        // Không xếp hàng: khi mọi thread đều bận thì pool BCrypt đã bão hòa từ trước
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            size,
+            size,
+            keepAliveSeconds,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            namedThreadFactory("credential-io-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "credential-io");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler credentialScheduler(@Qualifier("credentialExecutor") ExecutorService credentialExecutor) {
+        return Schedulers.fromExecutorService(credentialExecutor, "credential-io");
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
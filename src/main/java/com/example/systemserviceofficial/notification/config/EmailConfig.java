@@ -1,6 +1,7 @@
 package com.example.systemserviceofficial.notification.config;
 
 import com.example.commonserviceofficial.notification.service.EmailService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -10,6 +11,7 @@ import org.thymeleaf.TemplateEngine;
  * Configuration cho Email Service
  */
 @Configuration
+@EnableConfigurationProperties(NotificationProperties.class)
 public class EmailConfig {
 
     @Bean
@@ -0,0 +1,53 @@
+package com.example.systemserviceofficial.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình email thông báo ({@code app.notification.email}): các cờ bật/tắt theo loại email
+ * và giới hạn gửi theo (người nhận, loại email) trong {@link #throttle}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.notification.email")
+public class NotificationProperties {
+
+    private boolean enabled = true;
+
+    private boolean welcomeEnabled = true;
+
+    private boolean loginNotificationEnabled = false;
+
+    private boolean passwordResetEnabled = true;
+
+    private boolean passwordChangedEnabled = true;
+
+    /**
+     * Số sự kiện tối đa liệt kê trong một email tổng hợp; phần vượt chỉ được đếm.
+     */
+    private int maxDigestEntries = 50;
+
+    /**
+     * Category -> giới hạn. Category không khai báo thì không bị giới hạn.
+     */
+    private Map<String, Throttle> throttle = new LinkedHashMap<>();
+
+    @Data
+    public static class Throttle {
+
+        private Duration window = Duration.ofMinutes(15);
+
+        /**
+         * Số email được gửi ngay trong một cửa sổ.
+         */
+        private int maxPerWindow = 1;
+
+        /**
+         * Gộp các sự kiện vượt giới hạn vào một email tổng hợp khi hết cửa sổ; false thì bỏ qua.
+         */
+        private boolean digest;
+    }
+}
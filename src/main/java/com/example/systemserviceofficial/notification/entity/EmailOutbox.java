@@ -0,0 +1,80 @@
+package com.example.systemserviceofficial.notification.entity;
+
+import com.example.systemserviceofficial.notification.enums.EmailOutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sys_email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String recipient;
+    
+    @Column(nullable = false, length = 500)
+    private String subject;
+    
+    @Column(name = "template_name", length = 100)
+    private String templateName;
+    
+    /**
+     * Biến của template dạng JSON
+     */
+    @Column(name = "template_variables", columnDefinition = "TEXT")
+    private String templateVariables;
+    
+    /**
+     * Nội dung soạn sẵn khi không dùng template
+     */
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String content;
+    
+    @Column(nullable = false)
+    private boolean html = true;
+    
+    @Column(length = 50)
+    private String category;
+    
+    @Column(length = 20)
+    private String priority;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
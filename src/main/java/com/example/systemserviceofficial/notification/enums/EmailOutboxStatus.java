@@ -0,0 +1,9 @@
+package com.example.systemserviceofficial.notification.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    /** Đã được một worker nhận; next_attempt_at là hạn lease, quá hạn thì worker khác nhận lại */
+    SENDING,
+    SENT,
+    FAILED
+}
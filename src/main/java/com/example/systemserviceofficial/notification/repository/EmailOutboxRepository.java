@@ -0,0 +1,49 @@
+package com.example.systemserviceofficial.notification.repository;
+
+import com.example.systemserviceofficial.notification.entity.EmailOutbox;
+import com.example.systemserviceofficial.notification.enums.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    
+    /**
+     * Khóa các email đến hạn gửi; SKIP LOCKED để nhiều worker/node không nhận trùng.
+     */
+    @Query(value = "SELECT * FROM sys_email_outbox " +
+                   "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = 'SENDING', e.nextAttemptAt = :leaseUntil, " +
+           "e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markSending(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :lastError WHERE e.id = :id")
+    int markAttemptFailed(
+        @Param("id") Long id,
+        @Param("status") EmailOutboxStatus status,
+        @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+        @Param("lastError") String lastError
+    );
+    
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = 'SENT', e.sentAt = :sentAt, e.lastError = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+    
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = 'SENT' AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
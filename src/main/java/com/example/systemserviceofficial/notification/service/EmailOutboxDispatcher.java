@@ -0,0 +1,153 @@
+package com.example.systemserviceofficial.notification.service;
+
+import com.example.systemserviceofficial.notification.entity.EmailOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker gửi email từ outbox: mỗi lượt claim tối đa một lô cho mỗi kết nối của
+ * {@link SmtpTransportPool}, render và gửi song song các lô trên các kết nối SMTP
+ * được dùng lại, rồi đánh dấu SENT hoặc hẹn gửi lại từng email lỗi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService emailOutboxService;
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool smtpTransportPool;
+    private final EmailTemplateRegistry emailTemplateRegistry;
+
+    @Value("${spring.mail.username:}")
+    private String fromAddress;
+
+    @Value("${spring.mail.from-name:HDDT System}")
+    private String fromName;
+
+    @Value("${app.notification.outbox.sent-retention-days:7}")
+    private int sentRetentionDays;
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(smtpTransportPool.getMaxSize(), runnable -> {
+            Thread thread = new Thread(runnable, "email-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Một lượt claim mỗi tick (tối đa một lô cho mỗi kết nối SMTP), để một đợt email lớn
+     * không giữ thread scheduling dùng chung với các job {@code @Scheduled} khác.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            List<Future<?>> inFlight = new ArrayList<>();
+            for (int i = 0; i < smtpTransportPool.getMaxSize(); i++) {
+                List<EmailOutbox> batch = emailOutboxService.claimDue();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                inFlight.add(senders.submit(() -> send(batch)));
+            }
+            for (Future<?> future : inFlight) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Email outbox dispatch failed", e.getCause());
+        } catch (Exception e) {
+            log.error("Email outbox dispatch failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.notification.outbox.cleanup-cron:0 15 3 * * ?}")
+    public void cleanupSent() {
+        int deleted = emailOutboxService.deleteSentBefore(LocalDateTime.now().minusDays(sentRetentionDays));
+        log.info("Cleaned up {} sent emails from outbox", deleted);
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (Exception e) {
+                emailOutboxService.markFailed(email, "Render failed: " + e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<Long> sent = new ArrayList<>(messages.size());
+        try {
+            Map<MimeMessage, Exception> failed = smtpTransportPool.send(new ArrayList<>(messages.keySet()));
+            messages.forEach((message, email) -> {
+                Exception error = failed.get(message);
+                if (error == null) {
+                    sent.add(email.getId());
+                } else {
+                    emailOutboxService.markFailed(email, error.getMessage());
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            messages.values().forEach(email -> emailOutboxService.markFailed(email, "Interrupted"));
+        } catch (Exception e) {
+            messages.values().forEach(email -> emailOutboxService.markFailed(email, e.getMessage()));
+        }
+
+        emailOutboxService.markSent(sent);
+        log.debug("Email batch dispatched: sent={}, total={}", sent.size(), batch.size());
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException, UnsupportedEncodingException {
+        String body = email.getTemplateName() != null
+            ? emailTemplateRegistry.render(email.getTemplateName(), emailOutboxService.variablesOf(email))
+            : email.getContent();
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        if (fromAddress != null && !fromAddress.isBlank()) {
+            helper.setFrom(fromAddress, fromName);
+        }
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(body, email.isHtml());
+        return message;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.systemserviceofficial.notification.service;
+
+import com.example.systemserviceofficial.notification.entity.EmailOutbox;
+import com.example.systemserviceofficial.notification.enums.EmailOutboxStatus;
+import com.example.systemserviceofficial.notification.repository.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đọc/ghi sys_email_outbox. {@link #enqueue} tham gia transaction của nghiệp vụ gọi nó,
+ * nên email chỉ tồn tại khi thay đổi nghiệp vụ được commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.notification.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.notification.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.notification.outbox.backoff-initial-seconds:30}")
+    private long backoffInitialSeconds;
+
+    @Value("${app.notification.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Transactional
+    public void enqueue(EmailOutbox email, Map<String, Object> templateVariables) {
+        if (templateVariables != null) {
+            try {
+                email.setTemplateVariables(objectMapper.writeValueAsString(templateVariables));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Cannot serialize email template variables", e);
+            }
+        }
+        email.setStatus(EmailOutboxStatus.PENDING);
+        emailOutboxRepository.save(email);
+        log.debug("Email queued: category={}, recipient={}", email.getCategory(), email.getRecipient());
+    }
+
+    /**
+     * Nhận một lô email đến hạn và giữ lease cho tới khi gửi xong.
+     */
+    @Transactional
+    public List<EmailOutbox> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = emailOutboxRepository.lockDue(now, batchSize);
+        if (!due.isEmpty()) {
+            emailOutboxRepository.markSending(
+                due.stream().map(EmailOutbox::getId).toList(),
+                now.plusSeconds(leaseSeconds)
+            );
+        }
+        return due;
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            emailOutboxRepository.markSent(ids, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Hẹn gửi lại với backoff lũy thừa, hoặc chuyển FAILED khi đã hết số lần thử.
+     *
+     * @param email bản ghi như lúc được claim (attempts chưa tính lần gửi này)
+     */
+    @Transactional
+    public void markFailed(EmailOutbox email, String error) {
+        int attempts = email.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        long backoffSeconds = Math.min(backoffMaxSeconds, backoffInitialSeconds << Math.min(attempts - 1, 20));
+        emailOutboxRepository.markAttemptFailed(
+            email.getId(),
+            exhausted ? EmailOutboxStatus.FAILED : EmailOutboxStatus.PENDING,
+            LocalDateTime.now().plusSeconds(backoffSeconds),
+            error
+        );
+        if (exhausted) {
+            log.error("Email permanently failed after {} attempts: id={}, category={}, error={}",
+                attempts, email.getId(), email.getCategory(), error);
+        } else {
+            log.warn("Email send failed (attempt {}), retrying in {}s: id={}, error={}",
+                attempts, backoffSeconds, email.getId(), error);
+        }
+    }
+
+    @Transactional
+    public int deleteSentBefore(LocalDateTime before) {
+        return emailOutboxRepository.deleteSentBefore(before);
+    }
+
+    public Map<String, Object> variablesOf(EmailOutbox email) {
+        if (email.getTemplateVariables() == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(email.getTemplateVariables(), VARIABLES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid template variables for email " + email.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.systemserviceofficial.notification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Render template email trên một {@link TemplateEngine} riêng, tách khỏi engine của WebFlux:
+ * các template được parse và cache một lần lúc khởi động (không hết hạn), còn các khối
+ * tĩnh dùng chung (support, copyright) chỉ phụ thuộc year và supportEmail nên được render
+ * sẵn một lần cho mỗi cặp giá trị và chèn vào template qua biến {@code fragments}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailTemplateRegistry {
+
+    private static final Locale VIETNAMESE = Locale.forLanguageTag("vi-VN");
+    private static final String FRAGMENTS_TEMPLATE = "email/fragments/common";
+    private static final List<String> FRAGMENT_NAMES = List.of("support", "copyright");
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.notification.templates.preload:email/welcome,email/password-reset,email/otp,email/login-notification,email/password-changed,email/notification-digest}")
+    private List<String> preload;
+
+    private final TemplateEngine templateEngine = new TemplateEngine();
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+    private final Cache<FragmentKey, Map<String, String>> fragmentCache = Caffeine.newBuilder()
+        .maximumSize(16)
+        .build();
+
+    @PostConstruct
+    void init() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
+        templateEngine.setTemplateResolver(resolver);
+
+        // Parse trước để template lỗi/thiếu làm fail lúc khởi động thay vì lúc gửi
+        templateEngine.process(FRAGMENTS_TEMPLATE, new Context(VIETNAMESE), Writer.nullWriter());
+        for (String template : preload) {
+            templateEngine.process(template, new Context(VIETNAMESE, Map.of("fragments", Map.of())), Writer.nullWriter());
+        }
+        log.info("Email templates preloaded: {}", preload);
+    }
+
+    /**
+     * Render template với biến của từng email; {@code year} và {@code supportEmail}
+     * trong variables dùng để chọn khối tĩnh đã render sẵn.
+     */
+    public String render(String templateName, Map<String, Object> variables) {
+        Map<String, Object> model = new HashMap<>(variables);
+        model.put("fragments", fragmentsFor(variables.get("year"), variables.get("supportEmail")));
+        return renderTimer(templateName).record(() ->
+            templateEngine.process(templateName, new Context(VIETNAMESE, model)));
+    }
+
+    private Map<String, String> fragmentsFor(Object year, Object supportEmail) {
+        FragmentKey key = new FragmentKey(String.valueOf(year), String.valueOf(supportEmail));
+        return fragmentCache.get(key, k -> {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("year", year);
+            variables.put("supportEmail", supportEmail);
+            Map<String, String> fragments = new HashMap<>();
+            for (String name : FRAGMENT_NAMES) {
+                fragments.put(name, templateEngine.process(
+                    FRAGMENTS_TEMPLATE, Set.of(name), new Context(VIETNAMESE, variables)));
+            }
+            return Map.copyOf(fragments);
+        });
+    }
+
+    private Timer renderTimer(String templateName) {
+        return renderTimers.computeIfAbsent(templateName, name -> Timer.builder("email.template.render")
+            .tag("template", name)
+            .register(meterRegistry));
+    }
+
+    private record FragmentKey(String year, String supportEmail) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.systemserviceofficial.notification.service;
+
+import com.example.systemserviceofficial.notification.config.NotificationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Giới hạn email theo (người nhận, category) bằng cửa sổ cố định tính từ email đầu tiên.
+ * Trong một cửa sổ chỉ {@code max-per-window} email được gửi ngay; các sự kiện tiếp theo
+ * được gộp lại thành một email tổng hợp khi cửa sổ kết thúc (category có {@code digest: true})
+ * hoặc bị bỏ qua. Trạng thái nằm trong bộ nhớ nên giới hạn được tính trên từng node.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationThrottle {
+
+    private final NotificationProperties notificationProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initMetrics() {
+        Gauge.builder("notification.throttle.windows", windows, Map::size)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return true nếu email được gửi ngay; false nếu đã vượt giới hạn
+     *         (sự kiện được giữ lại cho email tổng hợp nếu category có digest)
+     */
+    public boolean tryAcquire(String recipient, String userName, String category, String summary) {
+        NotificationProperties.Throttle throttle = notificationProperties.getThrottle().get(category);
+        if (throttle == null) {
+            return true;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Key key = new Key(recipient, category);
+        while (true) {
+            Window window = windows.computeIfAbsent(key, k -> new Window(userName, now, now.plus(throttle.getWindow())));
+            synchronized (window) {
+                if (window.drained) {
+                    // Cửa sổ vừa được drainExpired lấy đi, tạo cửa sổ mới
+                    continue;
+                }
+                if (window.sent < throttle.getMaxPerWindow()) {
+                    window.sent++;
+                    return true;
+                }
+                window.userName = userName;
+                window.suppressed++;
+                if (throttle.isDigest() && window.events.size() < notificationProperties.getMaxDigestEntries()) {
+                    window.events.add(new DigestEvent(now, summary));
+                }
+            }
+            meterRegistry.counter("notification.email.suppressed",
+                "category", category,
+                "outcome", throttle.isDigest() ? "coalesced" : "dropped"
+            ).increment();
+            log.debug("Notification throttled: category={}, recipient={}", category, recipient);
+            return false;
+        }
+    }
+
+    /**
+     * Lấy ra các cửa sổ đã kết thúc; trả về email tổng hợp cho những cửa sổ có sự kiện bị gộp.
+     */
+    public List<Digest> drainExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Digest> digests = new ArrayList<>();
+        Iterator<Map.Entry<Key, Window>> iterator = windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Window> entry = iterator.next();
+            Window window = entry.getValue();
+            synchronized (window) {
+                if (window.endsAt.isAfter(now)) {
+                    continue;
+                }
+                window.drained = true;
+                iterator.remove();
+                if (!window.events.isEmpty()) {
+                    digests.add(new Digest(
+                        entry.getKey().recipient(),
+                        window.userName,
+                        entry.getKey().category(),
+                        window.startedAt,
+                        window.endsAt,
+                        List.copyOf(window.events),
+                        window.suppressed
+                    ));
+                }
+            }
+        }
+        return digests;
+    }
+
+    public record DigestEvent(LocalDateTime occurredAt, String summary) {
+    }
+
+    /**
+     * @param total tổng số sự kiện bị gộp, có thể lớn hơn số phần tử của events
+     */
+    public record Digest(
+            String recipient,
+            String userName,
+            String category,
+            LocalDateTime windowStart,
+            LocalDateTime windowEnd,
+            List<DigestEvent> events,
+            int total) {
+    }
+
+    private record Key(String recipient, String category) {
+    }
+
+    private static final class Window {
+
+        private final LocalDateTime startedAt;
+        private final LocalDateTime endsAt;
+        private final List<DigestEvent> events = new ArrayList<>();
+        private String userName;
+        private int sent;
+        private int suppressed;
+        private boolean drained;
+
+        private Window(String userName, LocalDateTime startedAt, LocalDateTime endsAt) {
+            this.userName = userName;
+            this.startedAt = startedAt;
+            this.endsAt = endsAt;
+        }
+    }
+}
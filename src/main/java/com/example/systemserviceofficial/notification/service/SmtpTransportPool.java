@@ -0,0 +1,216 @@
+package com.example.systemserviceofficial.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool các kết nối SMTP đã xác thực (đã qua STARTTLS + AUTH), dùng lại giữa các lô gửi
+ * thay vì mở kết nối mới cho mỗi lần gửi. Kết nối được kiểm tra (NOOP qua
+ * {@link Transport#isConnected()}) trước khi dùng lại nếu đã nằm chờ quá lâu,
+ * và được thay mới sau {@code max-messages-per-connection} email.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.notification.smtp-pool.max-size:4}")
+    private int maxSize;
+
+    @Value("${app.notification.smtp-pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMs;
+
+    @Value("${app.notification.smtp-pool.validate-after-idle-ms:5000}")
+    private long validateAfterIdleMs;
+
+    @Value("${app.notification.smtp-pool.max-idle-ms:60000}")
+    private long maxIdleMs;
+
+    @Value("${app.notification.smtp-pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private Semaphore permits;
+
+    private Timer connectTimer;
+    private Counter validationFailures;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxSize, true);
+        connectTimer = Timer.builder("smtp.pool.connect")
+            .register(meterRegistry);
+        validationFailures = Counter.builder("smtp.pool.validation.failures")
+            .register(meterRegistry);
+        Gauge.builder("smtp.pool.idle", idle, LinkedBlockingDeque::size)
+            .register(meterRegistry);
+        Gauge.builder("smtp.pool.active", this, pool -> pool.maxSize - pool.permits.availablePermits())
+            .register(meterRegistry);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gửi các message qua một kết nối trong pool.
+     *
+     * @return các message gửi lỗi kèm nguyên nhân (rỗng nếu tất cả thành công)
+     */
+    public Map<MimeMessage, Exception> send(List<MimeMessage> messages) throws MessagingException, InterruptedException {
+        Map<MimeMessage, Exception> failures = new IdentityHashMap<>();
+        if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out waiting for an SMTP connection");
+        }
+        PooledTransport transport = null;
+        try {
+            transport = borrow();
+            for (MimeMessage message : messages) {
+                try {
+                    if (transport == null || transport.sent >= maxMessagesPerConnection) {
+                        // Các message trước đó đã gửi xong; lỗi kết nối lại chỉ tính cho message hiện tại
+                        if (transport != null) {
+                            close(transport);
+                            transport = null;
+                        }
+                        transport = connect();
+                    }
+                    message.saveChanges();
+                    Address[] recipients = message.getAllRecipients();
+                    transport.transport.sendMessage(message, recipients != null ? recipients : new Address[0]);
+                    transport.sent++;
+                } catch (MessagingException e) {
+                    failures.put(message, e);
+                    // Kết nối bị ngắt giữa chừng: mở kết nối mới cho message kế tiếp
+                    if (transport != null && !transport.transport.isConnected()) {
+                        close(transport);
+                        transport = null;
+                    }
+                }
+            }
+            if (transport != null) {
+                release(transport);
+                transport = null;
+            }
+        } finally {
+            if (transport != null) {
+                close(transport);
+            }
+            permits.release();
+        }
+        return failures;
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            long idleMs = System.currentTimeMillis() - transport.lastUsedAt;
+            if (idleMs > maxIdleMs) {
+                close(transport);
+                continue;
+            }
+            // isConnected() của SMTPTransport gửi NOOP để kiểm tra kết nối còn sống
+            if (idleMs > validateAfterIdleMs && !transport.transport.isConnected()) {
+                validationFailures.increment();
+                close(transport);
+                continue;
+            }
+            return transport;
+        }
+        return connect();
+    }
+
+    private void release(PooledTransport transport) {
+        transport.lastUsedAt = System.currentTimeMillis();
+        idle.offerFirst(transport);
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        long started = System.nanoTime();
+        try {
+            Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+            transport.connect(
+                mailSender.getHost(),
+                mailSender.getPort(),
+                mailSender.getUsername(),
+                mailSender.getPassword()
+            );
+            return new PooledTransport(transport);
+        } finally {
+            connectTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void close(PooledTransport transport) {
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP transport: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Đóng các kết nối nằm chờ quá lâu, trước khi server SMTP tự ngắt.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.smtp-pool.evict-interval-ms:30000}")
+    public void evictIdle() {
+        List<PooledTransport> kept = new ArrayList<>();
+        PooledTransport transport;
+        long now = System.currentTimeMillis();
+        while ((transport = idle.pollLast()) != null) {
+            if (now - transport.lastUsedAt > maxIdleMs) {
+                close(transport);
+            } else {
+                kept.add(transport);
+            }
+        }
+        // kept đi từ cũ nhất tới mới nhất; trả lại để mới nhất nằm đầu hàng đợi
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            idle.offerLast(kept.get(i));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            close(transport);
+        }
+    }
+
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsedAt = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
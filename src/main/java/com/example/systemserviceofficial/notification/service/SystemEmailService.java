@@ -1,23 +1,30 @@
 package com.example.systemserviceofficial.notification.service;
 
 import com.example.commonserviceofficial.notification.dto.EmailRequest;
-import com.example.commonserviceofficial.notification.dto.EmailResponse;
 import com.example.commonserviceofficial.notification.service.EmailService;
+import com.example.systemserviceofficial.notification.config.NotificationProperties;
+import com.example.systemserviceofficial.notification.entity.EmailOutbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * System Email Service - Wrapper cho Common EmailService
- * Cung cấp các phương thức email cụ thể cho System Service
+ * Cung cấp các phương thức email cụ thể cho System Service.
+ * Email được ghi vào outbox trong transaction của nghiệp vụ gọi tới và được
+ * {@link EmailOutboxDispatcher} gửi sau, nên không có độ trễ SMTP trên luồng request.
+ * Email thông báo tôn trọng các cờ {@code app.notification.email.*-enabled}; email thông báo
+ * đăng nhập còn qua giới hạn của {@link NotificationThrottle} và được gửi gộp định kỳ khi vượt.
+ * Email bảo mật (reset, OTP, đổi mật khẩu) luôn được gửi ngay; số lần phát sinh chúng được
+ * giới hạn ở route bằng {@code app.rate-limit}.
  */
 @Slf4j
 @Service
@@ -25,6 +32,9 @@ import java.util.concurrent.CompletableFuture;
 public class SystemEmailService {
 
     private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final NotificationProperties notificationProperties;
+    private final NotificationThrottle notificationThrottle;
 
     @Value("${app.base-url:http://localhost:8082}")
     private String baseUrl;
@@ -32,287 +42,156 @@ public class SystemEmailService {
     /**
      * Gửi email chào mừng khi đăng ký thành công
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendWelcomeEmail(String toEmail, String userName, String userId) {
-        try {
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("userName", userName);
-            variables.put("userEmail", toEmail);
-            variables.put("userId", userId);
-            variables.put("registrationDate", LocalDateTime.now().toString());
-            variables.put("loginUrl", baseUrl + "/login");
-            variables.put("supportEmail", "support@hddt.com");
-            variables.put("year", LocalDateTime.now().getYear());
-
-            EmailRequest request = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject("Chào mừng bạn đến với hệ thống HDDT!")
-                    .templateName("email/welcome")
-                    .templateVariables(variables)
-                    .fromName("HDDT System")
-                    .category("welcome")
-                    .priority(EmailRequest.EmailPriority.NORMAL)
-                    .build();
-
-            EmailResponse response = emailService.sendEmail(request);
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Welcome email sent successfully to: {}", toEmail);
-            } else {
-                log.error("Failed to send welcome email to {}: {}", toEmail, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send welcome email to {}: {}", toEmail, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), "Welcome Email", e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    @Transactional
+    public void sendWelcomeEmail(String toEmail, String userName, String userId) {
+        if (!isEnabled(notificationProperties.isWelcomeEnabled())) {
+            return;
         }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", userName);
+        variables.put("userEmail", toEmail);
+        variables.put("userId", userId);
+        variables.put("registrationDate", LocalDateTime.now().toString());
+        variables.put("loginUrl", baseUrl + "/login");
+
+        enqueueTemplate(toEmail, "Chào mừng bạn đến với hệ thống HDDT!", "email/welcome",
+            variables, "welcome", EmailRequest.EmailPriority.NORMAL);
     }
 
     /**
-     * Gửi email reset password
+     * Gửi email reset password.
+     * Không qua NotificationThrottle: token mới đã thay token cũ nên bỏ email này sẽ khóa
+     * user khỏi việc đặt lại mật khẩu; route forgot-password đã bị giới hạn bởi rate limit.
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendPasswordResetEmail(String toEmail, String userName, String resetToken) {
-        try {
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("userName", userName);
-            variables.put("userEmail", toEmail);
-            variables.put("resetToken", resetToken);
-            variables.put("resetUrl", baseUrl + "/reset-password?token=" + resetToken);
-            variables.put("expiryMinutes", 30);
-            variables.put("createdAt", LocalDateTime.now().toString());
-            variables.put("supportEmail", "support@hddt.com");
-            variables.put("year", LocalDateTime.now().getYear());
-
-            EmailRequest request = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject("Yêu cầu đặt lại mật khẩu - HDDT System")
-                    .templateName("email/password-reset")
-                    .templateVariables(variables)
-                    .fromName("HDDT System")
-                    .category("password-reset")
-                    .priority(EmailRequest.EmailPriority.HIGH)
-                    .build();
-
-            EmailResponse response = emailService.sendEmailWithRetry(request); // Sử dụng retry cho email quan trọng
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Password reset email sent successfully to: {}", toEmail);
-            } else {
-                log.error("Failed to send password reset email to {}: {}", toEmail, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to {}: {}", toEmail, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), "Password Reset", e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    @Transactional
+    public void sendPasswordResetEmail(String toEmail, String userName, String resetToken) {
+        if (!isEnabled(notificationProperties.isPasswordResetEnabled())) {
+            return;
         }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", userName);
+        variables.put("userEmail", toEmail);
+        variables.put("resetToken", resetToken);
+        variables.put("resetUrl", baseUrl + "/reset-password?token=" + resetToken);
+        variables.put("expiryMinutes", 30);
+        variables.put("createdAt", LocalDateTime.now().toString());
+
+        enqueueTemplate(toEmail, "Yêu cầu đặt lại mật khẩu - HDDT System", "email/password-reset",
+            variables, "password-reset", EmailRequest.EmailPriority.HIGH);
     }
 
     /**
-     * Gửi email OTP
+     * Gửi email OTP.
+     * Không qua NotificationThrottle: người gọi đã phát mã mới, bỏ email sẽ làm user không
+     * nhận được mã đang có hiệu lực; số lần cấp OTP được giới hạn ở route (rate limit).
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendOtpEmail(String toEmail, String userName, String otpCode, int validityMinutes) {
-        try {
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("userName", userName);
-            variables.put("userEmail", toEmail);
-            variables.put("otpCode", otpCode);
-            variables.put("validityMinutes", validityMinutes);
-            variables.put("createdAt", LocalDateTime.now().toString());
-            variables.put("supportEmail", "support@hddt.com");
-            variables.put("year", LocalDateTime.now().getYear());
-
-            EmailRequest request = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject("Mã OTP xác thực - HDDT System")
-                    .templateName("email/otp")
-                    .templateVariables(variables)
-                    .fromName("HDDT System")
-                    .category("otp")
-                    .priority(EmailRequest.EmailPriority.HIGH)
-                    .build();
-
-            EmailResponse response = emailService.sendEmailWithRetry(request);
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("OTP email sent successfully to: {}", toEmail);
-            } else {
-                log.error("Failed to send OTP email to {}: {}", toEmail, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send OTP email to {}: {}", toEmail, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), "OTP Email", e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    @Transactional
+    public void sendOtpEmail(String toEmail, String userName, String otpCode, int validityMinutes) {
+        if (!isEnabled(true)) {
+            return;
         }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", userName);
+        variables.put("userEmail", toEmail);
+        variables.put("otpCode", otpCode);
+        variables.put("validityMinutes", validityMinutes);
+        variables.put("createdAt", LocalDateTime.now().toString());
+
+        enqueueTemplate(toEmail, "Mã OTP xác thực - HDDT System", "email/otp",
+            variables, "otp", EmailRequest.EmailPriority.HIGH);
     }
 
     /**
      * Gửi email thông báo đăng nhập thành công
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendLoginNotificationEmail(String toEmail, String userName, String ipAddress, String userAgent) {
-        try {
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("userName", userName);
-            variables.put("userEmail", toEmail);
-            variables.put("loginTime", LocalDateTime.now().toString());
-            variables.put("ipAddress", ipAddress);
-            variables.put("userAgent", userAgent);
-            variables.put("supportEmail", "support@hddt.com");
-            variables.put("year", LocalDateTime.now().getYear());
-
-            EmailRequest request = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject("Thông báo đăng nhập - HDDT System")
-                    .templateName("email/login-notification")
-                    .templateVariables(variables)
-                    .fromName("HDDT System")
-                    .category("login-notification")
-                    .priority(EmailRequest.EmailPriority.NORMAL)
-                    .build();
-
-            EmailResponse response = emailService.sendEmailAsync(request).get(); // Async nhưng đợi kết quả
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Login notification email sent successfully to: {}", toEmail);
-            } else {
-                log.error("Failed to send login notification email to {}: {}", toEmail, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send login notification email to {}: {}", toEmail, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), "Login Notification", e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    @Transactional
+    public void sendLoginNotificationEmail(String toEmail, String userName, String ipAddress, String userAgent) {
+        if (!isEnabled(notificationProperties.isLoginNotificationEnabled())
+            || !notificationThrottle.tryAcquire(toEmail, userName, "login-notification",
+                "Đăng nhập từ IP " + ipAddress + " (" + userAgent + ")")) {
+            return;
         }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", userName);
+        variables.put("userEmail", toEmail);
+        variables.put("loginTime", LocalDateTime.now().toString());
+        variables.put("ipAddress", ipAddress);
+        variables.put("userAgent", userAgent);
+
+        enqueueTemplate(toEmail, "Thông báo đăng nhập - HDDT System", "email/login-notification",
+            variables, "login-notification", EmailRequest.EmailPriority.NORMAL);
     }
 
     /**
-     * Gửi email thông báo thay đổi mật khẩu thành công
+     * Gửi email thông báo thay đổi mật khẩu thành công.
+     * Đây là cảnh báo bảo mật nên không qua NotificationThrottle: lần đổi thứ hai trong cửa sổ
+     * (ví dụ kẻ tấn công đổi ngay sau chủ tài khoản) phải được báo ngay, không chờ digest.
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendPasswordChangedEmail(String toEmail, String userName) {
-        try {
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("userName", userName);
-            variables.put("userEmail", toEmail);
-            variables.put("changedAt", LocalDateTime.now().toString());
-            variables.put("supportEmail", "support@hddt.com");
-            variables.put("year", LocalDateTime.now().getYear());
-
-            EmailRequest request = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject("Mật khẩu đã được thay đổi - HDDT System")
-                    .templateName("email/password-changed")
-                    .templateVariables(variables)
-                    .fromName("HDDT System")
-                    .category("password-changed")
-                    .priority(EmailRequest.EmailPriority.NORMAL)
-                    .build();
-
-            EmailResponse response = emailService.sendEmail(request);
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Password changed email sent successfully to: {}", toEmail);
-            } else {
-                log.error("Failed to send password changed email to {}: {}", toEmail, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send password changed email to {}: {}", toEmail, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), "Password Changed", e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    @Transactional
+    public void sendPasswordChangedEmail(String toEmail, String userName) {
+        if (!isEnabled(notificationProperties.isPasswordChangedEnabled())) {
+            return;
         }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", userName);
+        variables.put("userEmail", toEmail);
+        variables.put("changedAt", LocalDateTime.now().toString());
+
+        enqueueTemplate(toEmail, "Mật khẩu đã được thay đổi - HDDT System", "email/password-changed",
+            variables, "password-changed", EmailRequest.EmailPriority.NORMAL);
     }
 
     /**
      * Gửi email với template tùy chỉnh
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendCustomEmail(String toEmail, String subject, String templateName, Map<String, Object> variables) {
-        try {
-            // Add common variables
-            if (variables == null) {
-                variables = new HashMap<>();
-            }
-            variables.put("supportEmail", "support@hddt.com");
-            variables.put("year", LocalDateTime.now().getYear());
-            variables.put("baseUrl", baseUrl);
-
-            EmailRequest request = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject(subject)
-                    .templateName(templateName)
-                    .templateVariables(variables)
-                    .fromName("HDDT System")
-                    .category("custom")
-                    .priority(EmailRequest.EmailPriority.NORMAL)
-                    .build();
-
-            EmailResponse response = emailService.sendEmail(request);
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Custom email sent successfully to: {} with template: {}", toEmail, templateName);
-            } else {
-                log.error("Failed to send custom email to {} with template {}: {}", toEmail, templateName, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send custom email to {} with template {}: {}", toEmail, templateName, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), subject, e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    @Transactional
+    public void sendCustomEmail(String toEmail, String subject, String templateName, Map<String, Object> variables) {
+        if (!isEnabled(true)) {
+            return;
         }
+
+        Map<String, Object> allVariables = variables != null ? new HashMap<>(variables) : new HashMap<>();
+        allVariables.put("baseUrl", baseUrl);
+
+        enqueueTemplate(toEmail, subject, templateName, allVariables, "custom", EmailRequest.EmailPriority.NORMAL);
     }
 
     /**
      * Gửi email đơn giản (text hoặc HTML)
      */
-    @Async
-    public CompletableFuture<EmailResponse> sendSimpleEmail(String toEmail, String subject, String content, boolean isHtml) {
-        try {
-            EmailRequest.EmailRequestBuilder builder = EmailRequest.builder()
-                    .to(List.of(toEmail))
-                    .subject(subject)
-                    .fromName("HDDT System")
-                    .category("simple")
-                    .priority(EmailRequest.EmailPriority.NORMAL);
-
-            if (isHtml) {
-                builder.htmlContent(content);
-            } else {
-                builder.textContent(content);
-            }
+    @Transactional
+    public void sendSimpleEmail(String toEmail, String subject, String content, boolean isHtml) {
+        if (!isEnabled(true)) {
+            return;
+        }
 
-            EmailRequest request = builder.build();
-            EmailResponse response = emailService.sendEmail(request);
-            
-            if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Simple email sent successfully to: {}", toEmail);
-            } else {
-                log.error("Failed to send simple email to {}: {}", toEmail, response.getErrorDetails());
-            }
-            
-            return CompletableFuture.completedFuture(response);
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(toEmail);
+        email.setSubject(subject);
+        email.setContent(content);
+        email.setHtml(isHtml);
+        email.setCategory("simple");
+        email.setPriority(EmailRequest.EmailPriority.NORMAL.name());
+        emailOutboxService.enqueue(email, null);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to send simple email to {}: {}", toEmail, e.getMessage(), e);
-            EmailResponse errorResponse = EmailResponse.failed(null, List.of(toEmail), subject, e.getMessage());
-            return CompletableFuture.completedFuture(errorResponse);
+    /**
+     * Gửi email tổng hợp cho các cửa sổ giới hạn đã kết thúc
+     */
+    @Scheduled(fixedDelayString = "${app.notification.email.digest-flush-interval-ms:30000}")
+    public void sendDigests() {
+        for (NotificationThrottle.Digest digest : notificationThrottle.drainExpired()) {
+            try {
+                sendDigestEmail(digest);
+            } catch (Exception e) {
+                log.error("Failed to enqueue digest email: category={}, recipient={}",
+                    digest.category(), digest.recipient(), e);
+            }
         }
     }
 
@@ -329,4 +208,59 @@ public class SystemEmailService {
     public boolean validateEmail(String email) {
         return email != null && email.matches("^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$");
     }
-}
\ No newline at end of file
+
+    private void sendDigestEmail(NotificationThrottle.Digest digest) {
+        List<Map<String, Object>> events = digest.events().stream()
+            .map(event -> Map.<String, Object>of(
+                "occurredAt", event.occurredAt().toString(),
+                "summary", event.summary()
+            ))
+            .toList();
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userName", digest.userName());
+        variables.put("userEmail", digest.recipient());
+        variables.put("title", digestTitle(digest.category()));
+        variables.put("windowStart", digest.windowStart().toString());
+        variables.put("windowEnd", digest.windowEnd().toString());
+        variables.put("events", events);
+        variables.put("total", digest.total());
+        // 0 được template hiểu là false
+        variables.put("omitted", digest.total() - events.size());
+
+        enqueueTemplate(digest.recipient(), digestTitle(digest.category()) + " - HDDT System",
+            "email/notification-digest", variables, digest.category() + "-digest",
+            EmailRequest.EmailPriority.NORMAL);
+    }
+
+    private static String digestTitle(String category) {
+        return switch (category) {
+            case "login-notification" -> "Tổng hợp hoạt động đăng nhập";
+            default -> "Tổng hợp thông báo";
+        };
+    }
+
+    private boolean isEnabled(boolean categoryEnabled) {
+        return notificationProperties.isEnabled() && categoryEnabled;
+    }
+
+    private void enqueueTemplate(
+            String toEmail,
+            String subject,
+            String templateName,
+            Map<String, Object> variables,
+            String category,
+            EmailRequest.EmailPriority priority) {
+
+        variables.put("supportEmail", "support@hddt.com");
+        variables.put("year", LocalDateTime.now().getYear());
+
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(toEmail);
+        email.setSubject(subject);
+        email.setTemplateName(templateName);
+        email.setCategory(category);
+        email.setPriority(priority.name());
+        emailOutboxService.enqueue(email, variables);
+    }
+}
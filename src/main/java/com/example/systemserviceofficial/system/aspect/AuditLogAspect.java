@@ -1,67 +1,261 @@
 package com.example.systemserviceofficial.system.aspect;
 
 import com.example.commonserviceofficial.logging.util.TraceIdUtil;
+import com.example.commonserviceofficial.util.WebUtils;
 import com.example.systemserviceofficial.system.annotation.AuditLogAction;
 import com.example.systemserviceofficial.system.entity.AuditLog;
-import com.example.systemserviceofficial.system.service.AuditLogService;
+import com.example.systemserviceofficial.system.exception.ServiceBusyException;
+import com.example.systemserviceofficial.system.service.AuditLogWriter;
+import com.example.systemserviceofficial.system.service.UserIdResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.ContextView;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ghi audit log cho các handler có {@link AuditLogAction}. Với kiểu trả về Mono/Flux,
+ * việc đo thời gian và ghi log gắn vào vòng đời của chính publisher đó (từ lúc subscribe
+ * đến khi complete/error/cancel), user được đọc từ Reactor context trong cùng chuỗi.
+ * <p>
+ * HTTP status được đọc từ response của exchange ngay trước khi commit, sau khi exception
+ * handler đã set status; exchange lấy từ Reactor context ({@code ServerWebExchangeContextFilter}).
+ */
 @Slf4j
-//@Aspect  // Tắt tạm thời
+@Aspect
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class AuditLogAspect {
     
-    private final AuditLogService auditLogService;
+    private final AuditLogWriter auditLogWriter;
+    private final UserIdResolver userIdResolver;
+    @Qualifier("blockingScheduler")
+    private final Scheduler blockingScheduler;
     
     @Around("@annotation(auditLogAction)")
     public Object logAudit(ProceedingJoinPoint joinPoint, AuditLogAction auditLogAction)
             throws Throwable {
         
-        long startTime = System.currentTimeMillis();
+        AuditLog template = newAuditLog(joinPoint, auditLogAction);
+        
+        Object result;
+        long startTime = System.nanoTime();
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            complete(template, exchangeArgument(joinPoint), startTime, SignalType.ON_ERROR, e);
+            throw e;
+        }
+        
+        if (result instanceof Mono<?> mono) {
+            return currentUser().flatMap(user -> {
+                user.applyTo(template);
+                return audited(mono, template);
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return currentUser().flatMapMany(user -> {
+                user.applyTo(template);
+                return audited(flux, template);
+            });
+        }
+        
+        complete(template, exchangeArgument(joinPoint), startTime, SignalType.ON_COMPLETE, null);
+        return result;
+    }
+    
+    private <T> Mono<T> audited(Mono<T> mono, AuditLog auditLog) {
+        return Mono.deferContextual(context -> {
+            ServerWebExchange exchange = exchangeOf(context, auditLog);
+            long startTime = System.nanoTime();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            return mono
+                .doOnError(error::set)
+                .doFinally(signal -> complete(auditLog, exchange, startTime, signal, error.get()));
+        });
+    }
+    
+    private <T> Flux<T> audited(Flux<T> flux, AuditLog auditLog) {
+        return Flux.deferContextual(context -> {
+            ServerWebExchange exchange = exchangeOf(context, auditLog);
+            long startTime = System.nanoTime();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            return flux
+                .doOnError(error::set)
+                .doFinally(signal -> complete(auditLog, exchange, startTime, signal, error.get()));
+        });
+    }
+    
+    /**
+     * Username từ principal; id tra theo username (JWT không mang id), chỉ chạm DB
+     * trên blockingScheduler khi cache "users" chưa có.
+     */
+    private Mono<AuditUser> currentUser() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .filter(Authentication::isAuthenticated)
+            .map(Authentication::getName)
+            .flatMap(username -> {
+                Long cached = userIdResolver.getCached(username);
+                if (cached != null) {
+                    return Mono.just(new AuditUser(username, cached));
+                }
+                return Mono.fromCallable(() -> new AuditUser(username, userIdResolver.resolve(username)))
+                    .subscribeOn(blockingScheduler)
+                    .onErrorResume(e -> {
+                        log.warn("Cannot resolve user id for audit log: username={}, error={}", username, e.getMessage());
+                        return Mono.just(new AuditUser(username, null));
+                    });
+            })
+            .defaultIfEmpty(AuditUser.ANONYMOUS);
+    }
+    
+    private AuditLog newAuditLog(ProceedingJoinPoint joinPoint, AuditLogAction auditLogAction) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
         
         AuditLog log = new AuditLog();
         log.setTraceId(TraceIdUtil.getOrCreate());
         log.setAction(auditLogAction.action());
         log.setResource(auditLogAction.resource());
-        log.setMethod("POST"); // Default for now
+        log.setMethod(httpMethodOf(method));
+        describeRequest(log, exchangeArgument(joinPoint));
+        return log;
+    }
+    
+    private ServerWebExchange exchangeOf(ContextView context, AuditLog auditLog) {
+        ServerWebExchange exchange = ServerWebExchangeContextFilter.getExchange(context).orElse(null);
+        if (auditLog.getRequestUrl() == null) {
+            describeRequest(auditLog, exchange);
+        }
+        return exchange;
+    }
+    
+    private static ServerWebExchange exchangeArgument(ProceedingJoinPoint joinPoint) {
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof ServerWebExchange exchange) {
+                return exchange;
+            }
+        }
+        return null;
+    }
+    
+    private static void describeRequest(AuditLog log, ServerWebExchange exchange) {
+        if (exchange == null) {
+            return;
+        }
+        log.setRequestUrl(exchange.getRequest().getPath().value());
+        log.setIpAddress(WebUtils.getClientIp(exchange));
+        log.setUserAgent(exchange.getRequest().getHeaders().getFirst("User-Agent"));
+    }
+    
+    private void complete(
+            AuditLog auditLog,
+            ServerWebExchange exchange,
+            long startTime,
+            SignalType signal,
+            Throwable error) {
         
-        // Get current user from reactive context
-        ReactiveSecurityContextHolder.getContext()
-            .map(SecurityContext::getAuthentication)
-            .filter(Authentication::isAuthenticated)
-            .map(Authentication::getName)
-            .subscribe(username -> log.setUsername(username));
+        auditLog.setExecutionTime((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        if (error != null) {
+            auditLog.setErrorMessage(error.getMessage());
+        }
+        if (signal == SignalType.CANCEL) {
+            // Client đóng kết nối trước khi có kết quả
+            auditLog.setStatus("CANCELLED");
+            auditLog.setResponseStatus(499);
+            auditLogWriter.submit(auditLog);
+            return;
+        }
         
-        try {
-            Object result = joinPoint.proceed();
-            
-            log.setStatus("SUCCESS");
-            log.setResponseStatus(200);
-            log.setExecutionTime((int)(System.currentTimeMillis() - startTime));
-            
-            auditLogService.saveAsync(log);
-            
-            return result;
-            
-        } catch (Exception e) {
-            log.setStatus("FAILED");
-            log.setErrorMessage(e.getMessage());
-            log.setResponseStatus(500);
-            log.setExecutionTime((int)(System.currentTimeMillis() - startTime));
-            
-            auditLogService.saveAsync(log);
-            
-            throw e;
+        boolean failed = signal == SignalType.ON_ERROR && error != null;
+        if (exchange == null) {
+            submit(auditLog, failed, failed ? fallbackStatusOf(error) : 200);
+            return;
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            submit(auditLog, failed, statusOf(response, failed, error));
+            return;
+        }
+        // Exception handler chạy sau khi publisher kết thúc; đọc status lúc response commit
+        response.beforeCommit(() -> {
+            submit(auditLog, failed, statusOf(response, failed, error));
+            return Mono.empty();
+        });
+    }
+    
+    private void submit(AuditLog auditLog, boolean failed, int status) {
+        auditLog.setResponseStatus(status);
+        auditLog.setStatus(failed || status >= 400 ? "FAILED" : "SUCCESS");
+        auditLogWriter.submit(auditLog);
+    }
+    
+    private static int statusOf(ServerHttpResponse response, boolean failed, Throwable error) {
+        HttpStatusCode status = response.getStatusCode();
+        if (status != null) {
+            return status.value();
+        }
+        return failed ? fallbackStatusOf(error) : 200;
+    }
+    
+    /**
+     * Chỉ dùng khi không có exchange (handler ném lỗi đồng bộ, không nhận ServerWebExchange).
+     */
+    private static int fallbackStatusOf(Throwable error) {
+        if (error instanceof ResponseStatusException responseStatusException) {
+            return responseStatusException.getStatusCode().value();
+        }
+        if (error instanceof ServiceBusyException) {
+            return 503;
+        }
+        if (error instanceof AccessDeniedException) {
+            return 403;
+        }
+        return 500;
+    }
+    
+    private static String httpMethodOf(Method method) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        if (mapping == null || mapping.method().length == 0) {
+            return null;
+        }
+        RequestMethod requestMethod = mapping.method()[0];
+        return requestMethod.name();
+    }
+    
+    private record AuditUser(String username, Long userId) {
+        
+        static final AuditUser ANONYMOUS = new AuditUser(null, null);
+        
+        void applyTo(AuditLog auditLog) {
+            auditLog.setUsername(username);
+            auditLog.setUserId(userId);
         }
     }
 }
@@ -1,32 +1,134 @@
 package com.example.systemserviceofficial.system.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class CacheConfig {
 
+    private static final List<String> CACHE_NAMES = List.of("users", "roles", "permissions", "tokens");
+
+    private static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(30);
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-            "users", "roles", "permissions", "tokens"
-        );
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(
+            CachePolicyProperties properties,
+            MeterRegistry meterRegistry,
+            ObjectProvider<NamedCacheLoader<?, ?>> cacheLoaders) {
+
+        Map<String, NamedCacheLoader<?, ?>> loadersByCache = new HashMap<>();
+        cacheLoaders.forEach(loader -> loadersByCache.put(loader.cacheName(), loader));
+
+        Map<String, CachePolicyProperties.Spec> specs = new LinkedHashMap<>();
+        CACHE_NAMES.forEach(name -> specs.put(name, new CachePolicyProperties.Spec()));
+        specs.putAll(properties.getCaches());
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeineCacheBuilder(properties.getDefaults()));
+        cacheManager.setCacheNames(List.of());
+
+        specs.forEach((name, spec) -> {
+            Cache<Object, Object> cache = buildCache(
+                name, spec.mergedWith(properties.getDefaults()), loadersByCache.get(name));
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+            cacheManager.registerCustomCache(name, cache);
+        });
         return cacheManager;
     }
 
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-            .initialCapacity(100)
-            .maximumSize(1000)
-            .expireAfterWrite(30, TimeUnit.MINUTES)
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> buildCache(
+            String name,
+            CachePolicyProperties.Spec spec,
+            NamedCacheLoader<?, ?> loader) {
+
+        Caffeine<Object, Object> builder = caffeineCacheBuilder(spec);
+
+        if (spec.getRefreshAfterWrite() != null) {
+            if (loader != null) {
+                builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+            } else {
+                log.warn("Cache '{}' has refresh-after-write but no loader; refresh disabled", name);
+            }
+        }
+
+        if (loader != null) {
+            return builder.build((NamedCacheLoader<Object, Object>) loader);
+        }
+        return builder.build();
+    }
+
+    private Caffeine<Object, Object> caffeineCacheBuilder(CachePolicyProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .initialCapacity(spec.getInitialCapacity() != null ? spec.getInitialCapacity() : 100)
+            .maximumSize(spec.getMaximumSize() != null ? spec.getMaximumSize() : 1000)
             .recordStats();
+
+        Duration expireAfterWrite = spec.getExpireAfterWrite() != null
+            ? spec.getExpireAfterWrite()
+            : DEFAULT_EXPIRE_AFTER_WRITE;
+
+        if (Boolean.TRUE.equals(spec.getVariableExpiry())) {
+            builder.expireAfter(new EpochMillisExpiry(expireAfterWrite));
+        } else {
+            builder.expireAfterWrite(expireAfterWrite);
+            if (spec.getExpireAfterAccess() != null) {
+                builder.expireAfterAccess(spec.getExpireAfterAccess());
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Entry có giá trị Long được hiểu là epoch millis hết hạn (ví dụ exp của JWT bị blacklist),
+     * các entry khác hết hạn sau {@code fallback} kể từ lúc ghi.
+     */
+    static final class EpochMillisExpiry implements Expiry<Object, Object> {
+
+        private final long fallbackNanos;
+
+        EpochMillisExpiry(Duration fallback) {
+            this.fallbackNanos = fallback.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            if (value instanceof Long expiresAtMillis) {
+                long remainingMillis = expiresAtMillis - System.currentTimeMillis();
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+            }
+            return fallbackNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
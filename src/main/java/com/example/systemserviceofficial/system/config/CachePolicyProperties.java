@@ -0,0 +1,55 @@
+package com.example.systemserviceofficial.system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình Caffeine theo từng cache ({@code app.cache.caches.<name>}),
+ * các giá trị không khai báo sẽ lấy từ {@code app.cache.defaults}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CachePolicyProperties {
+
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        private Integer initialCapacity;
+
+        private Long maximumSize;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        /**
+         * Chỉ có tác dụng khi cache có {@link NamedCacheLoader} tương ứng.
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * Hết hạn theo từng entry: giá trị cache là epoch millis hết hạn (ví dụ exp của JWT).
+         * Entry có giá trị khác dùng {@link #expireAfterWrite}.
+         */
+        private Boolean variableExpiry;
+
+        public Spec mergedWith(Spec defaults) {
+            Spec merged = new Spec();
+            merged.initialCapacity = initialCapacity != null ? initialCapacity : defaults.initialCapacity;
+            merged.maximumSize = maximumSize != null ? maximumSize : defaults.maximumSize;
+            merged.expireAfterWrite = expireAfterWrite != null ? expireAfterWrite : defaults.expireAfterWrite;
+            merged.expireAfterAccess = expireAfterAccess != null ? expireAfterAccess : defaults.expireAfterAccess;
+            merged.refreshAfterWrite = refreshAfterWrite != null ? refreshAfterWrite : defaults.refreshAfterWrite;
+            merged.variableExpiry = variableExpiry != null ? variableExpiry : defaults.variableExpiry;
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.systemserviceofficial.system.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Loader gắn với một cache theo tên; khi có, cache được build thành LoadingCache
+ * để dùng được refreshAfterWrite.
+ */
+public interface NamedCacheLoader<K, V> extends CacheLoader<K, V> {
+
+    String cacheName();
+}
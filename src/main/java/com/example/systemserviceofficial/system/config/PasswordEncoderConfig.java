@@ -1,15 +1,21 @@
 package com.example.systemserviceofficial.system.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
 public class PasswordEncoderConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordHashingProfiles passwordHashingProfiles(PasswordHashingProperties properties) {
+        return new PasswordHashingProfiles(properties);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingProfiles passwordHashingProfiles) {
+        return passwordHashingProfiles.delegatingEncoder();
     }
 }
@@ -0,0 +1,70 @@
+package com.example.systemserviceofficial.system.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tập các encoder theo profile, dùng chung cho {@link DelegatingPasswordEncoder}
+ * và cho việc chọn profile / kiểm tra cần băm lại theo role của user.
+ */
+public class PasswordHashingProfiles {
+
+    private final String defaultProfile;
+    private final Map<String, PasswordEncoder> encoders = new HashMap<>();
+    private final Map<String, String> roleProfiles = new HashMap<>();
+    private final DelegatingPasswordEncoder delegatingEncoder;
+
+    public PasswordHashingProfiles(PasswordHashingProperties properties) {
+        properties.getProfiles().forEach((id, strength) ->
+            encoders.put(id, new BCryptPasswordEncoder(strength)));
+        if (!encoders.containsKey(properties.getDefaultProfile())) {
+            throw new IllegalStateException(
+                "Unknown default password hashing profile: " + properties.getDefaultProfile());
+        }
+        properties.getRoleProfiles().forEach((role, profile) -> {
+            if (!encoders.containsKey(profile)) {
+                throw new IllegalStateException(
+                    "Unknown password hashing profile '" + profile + "' for role " + role);
+            }
+            roleProfiles.put(role.toUpperCase(Locale.ROOT), profile);
+        });
+        this.defaultProfile = properties.getDefaultProfile();
+
+        this.delegatingEncoder = new DelegatingPasswordEncoder(defaultProfile, encoders);
+        // Hash cũ không có prefix {id} (BCrypt thuần) vẫn kiểm tra được
+        this.delegatingEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+    }
+
+    public PasswordEncoder delegatingEncoder() {
+        return delegatingEncoder;
+    }
+
+    /**
+     * Chọn profile theo role: role đầu tiên có cấu hình trong role-profiles thắng.
+     */
+    public String profileFor(Collection<String> roleCodes) {
+        if (roleCodes != null) {
+            for (String roleCode : roleCodes) {
+                String profile = roleProfiles.get(roleCode.toUpperCase(Locale.ROOT));
+                if (profile != null) {
+                    return profile;
+                }
+            }
+        }
+        return defaultProfile;
+    }
+
+    public String encode(String profile, CharSequence rawPassword) {
+        return "{" + profile + "}" + encoders.get(profile).encode(rawPassword);
+    }
+
+    public boolean needsUpgrade(String encodedPassword, String profile) {
+        return encodedPassword == null || !encodedPassword.startsWith("{" + profile + "}");
+    }
+}
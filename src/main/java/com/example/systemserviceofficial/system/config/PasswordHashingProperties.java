@@ -0,0 +1,32 @@
+package com.example.systemserviceofficial.system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình các profile băm mật khẩu.
+ * Mỗi profile có một id (được lưu làm prefix {id} trong hash) và cost BCrypt tương ứng.
+ * Đổi cost thì phải khai báo id mới để các hash cũ được nâng cấp dần khi đăng nhập.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Profile dùng khi user không thuộc role nào trong {@link #roleProfiles}.
+     */
+    private String defaultProfile = "bcrypt-10";
+
+    /**
+     * Profile id -> BCrypt cost (4..31).
+     */
+    private Map<String, Integer> profiles = new LinkedHashMap<>(Map.of("bcrypt-10", 10));
+
+    /**
+     * Role code -> profile id, ví dụ tài khoản service dùng cost thấp hơn.
+     */
+    private Map<String, String> roleProfiles = new LinkedHashMap<>();
+}
@@ -0,0 +1,23 @@
+package com.example.systemserviceofficial.system.config;
+
+import com.example.systemserviceofficial.system.filter.RateLimitWebFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitWebFilter rateLimitWebFilter(
+            RateLimitProperties properties,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper) {
+        return new RateLimitWebFilter(properties, meterRegistry, objectMapper);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.systemserviceofficial.system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình giới hạn request theo (IP, route) bằng token bucket ({@code app.rate-limit.routes.<name>}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Số bucket tối đa giữ trong bộ nhớ (mỗi cặp IP + route là một bucket).
+     */
+    private long maximumKeys = 100_000;
+
+    /**
+     * Bucket không được dùng trong khoảng này thì bị bỏ (khi tạo lại sẽ đầy).
+     */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+
+        /**
+         * Path pattern, ví dụ {@code /api/auth/login}.
+         */
+        private String path;
+
+        /**
+         * HTTP method; để trống thì áp dụng cho mọi method.
+         */
+        private String method;
+
+        /**
+         * Số request được dồn tối đa (burst).
+         */
+        private int capacity = 10;
+
+        private double refillPerSecond = 1.0;
+    }
+}
@@ -2,17 +2,32 @@ package com.example.systemserviceofficial.system.controller;
 
 import com.example.commonserviceofficial.contract.BaseResponse;
 import com.example.commonserviceofficial.security.annotation.HasRole;
+import com.example.systemserviceofficial.system.annotation.AuditLogAction;
+import com.example.systemserviceofficial.system.dto.response.AuditLogCursorPage;
 import com.example.systemserviceofficial.system.dto.response.AuditLogResponse;
+import com.example.systemserviceofficial.system.dto.response.AuditLogStatsResponse;
+import com.example.systemserviceofficial.system.enums.AuditExportFormat;
+import com.example.systemserviceofficial.system.enums.RollupGranularity;
+import com.example.systemserviceofficial.system.service.AuditLogExportService;
 import com.example.systemserviceofficial.system.service.AuditLogService;
+import com.example.systemserviceofficial.system.service.AuditRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @RestController
@@ -21,6 +36,8 @@ import java.util.List;
 public class AuditLogController {
     
     private final AuditLogService auditLogService;
+    private final AuditLogExportService auditLogExportService;
+    private final AuditRollupService auditRollupService;
     
     @GetMapping
     @HasRole(role = "ADMIN")
@@ -38,6 +55,66 @@ public class AuditLogController {
         return BaseResponse.ok(logs);
     }
     
+    @GetMapping("/cursor")
+    @HasRole(role = "ADMIN")
+    public BaseResponse<AuditLogCursorPage> getAuditLogsByCursor(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        AuditLogCursorPage logs = auditLogService.findByCursor(
+            userId, action, startDate, endDate, cursor, size, includeTotal
+        );
+        
+        return BaseResponse.ok(logs);
+    }
+    
+    @GetMapping("/export")
+    @HasRole(role = "ADMIN")
+    @AuditLogAction(action = "EXPORT_AUDIT_LOG", resource = "/api/audit-logs/export")
+    public Flux<DataBuffer> exportAuditLogs(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            ServerWebExchange exchange) {
+        
+        AuditExportFormat exportFormat = AuditExportFormat.from(format);
+        String fileName = "audit-logs-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+            + "." + exportFormat.getExtension();
+        
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setContentType(MediaType.parseMediaType(exportFormat.getContentType()));
+        response.getHeaders().set(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(fileName).build().toString());
+        
+        return auditLogExportService.export(
+            exportFormat, userId, action, auditLogService.since(startDate), endDate, response.bufferFactory()
+        );
+    }
+    
+    @GetMapping("/stats")
+    @HasRole(role = "ADMIN")
+    public BaseResponse<List<AuditLogStatsResponse>> getAuditLogStats(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean groupByUser) {
+        
+        List<AuditLogStatsResponse> stats = auditRollupService.findStats(
+            granularity, startDate, endDate, action, userId, groupByUser
+        );
+        
+        return BaseResponse.ok(stats);
+    }
+    
     @GetMapping("/{id}")
     @HasRole(role = "ADMIN")
     public BaseResponse<AuditLogResponse> getAuditLog(@PathVariable Long id) {
@@ -5,13 +5,19 @@ import com.example.commonserviceofficial.util.WebUtils;
 import com.example.systemserviceofficial.system.annotation.AuditLogAction;
 import com.example.systemserviceofficial.system.dto.request.*;
 import com.example.systemserviceofficial.system.dto.response.LoginResponse;
+import com.example.systemserviceofficial.system.exception.ServiceBusyException;
 import com.example.systemserviceofficial.system.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -19,6 +25,13 @@ import reactor.core.publisher.Mono;
 public class AuthController {
     
     private final AuthService authService;
+    @Qualifier("blockingScheduler")
+    private final Scheduler blockingScheduler;
+    @Qualifier("credentialScheduler")
+    private final Scheduler credentialScheduler;
+    
+    @Value("${app.security.password-hashing.retry-after-seconds:2}")
+    private long retryAfterSeconds;
     
     @PostMapping("/login")
     @AuditLogAction(action = "LOGIN", resource = "/api/auth/login")
@@ -28,9 +41,11 @@ public class AuthController {
         
         String ipAddress = WebUtils.getClientIp(exchange);
         String userAgent = exchange.getRequest().getHeaders().getFirst("User-Agent");
-        LoginResponse response = authService.login(request, ipAddress, userAgent);
         
-        return Mono.just(BaseResponse.ok(response));
+        return Mono.fromCallable(() -> authService.login(request, ipAddress, userAgent))
+            .subscribeOn(credentialScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .map(BaseResponse::ok);
     }
     
     @PostMapping("/logout")
@@ -39,17 +54,21 @@ public class AuthController {
             @RequestHeader("Authorization") String authHeader) {
         
         String token = authHeader.substring(7); // Remove "Bearer "
-        authService.logout(token);
         
-        return Mono.just(BaseResponse.ok("Đăng xuất thành công"));
+        return Mono.fromRunnable(() -> authService.logout(token))
+            .subscribeOn(blockingScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .thenReturn(BaseResponse.ok("Đăng xuất thành công"));
     }
     
     @PostMapping("/refresh")
     public Mono<BaseResponse<LoginResponse>> refreshToken(
             @Valid @RequestBody RefreshTokenRequest request) {
         
-        LoginResponse response = authService.refreshToken(request.getRefreshToken());
-        return Mono.just(BaseResponse.ok(response));
+        return Mono.fromCallable(() -> authService.refreshToken(request.getRefreshToken()))
+            .subscribeOn(blockingScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .map(BaseResponse::ok);
     }
     
     @PostMapping("/register")
@@ -57,8 +76,10 @@ public class AuthController {
     public Mono<BaseResponse<String>> register(
             @Valid @RequestBody RegisterRequest request) {
         
-        authService.register(request);
-        return Mono.just(BaseResponse.ok("Đăng ký thành công. Vui lòng kiểm tra email để kích hoạt tài khoản."));
+        return Mono.fromRunnable(() -> authService.register(request))
+            .subscribeOn(credentialScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .thenReturn(BaseResponse.ok("Đăng ký thành công. Vui lòng kiểm tra email để kích hoạt tài khoản."));
     }
     
     /**
@@ -69,8 +90,10 @@ public class AuthController {
     public Mono<BaseResponse<String>> forgotPassword(
             @Valid @RequestBody ForgotPasswordRequest request) {
         
-        authService.forgotPassword(request.getEmail());
-        return Mono.just(BaseResponse.ok("Email hướng dẫn đặt lại mật khẩu đã được gửi. Vui lòng kiểm tra hộp thư."));
+        return Mono.fromRunnable(() -> authService.forgotPassword(request.getEmail()))
+            .subscribeOn(blockingScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .thenReturn(BaseResponse.ok("Email hướng dẫn đặt lại mật khẩu đã được gửi. Vui lòng kiểm tra hộp thư."));
     }
     
     /**
@@ -86,8 +109,10 @@ public class AuthController {
             return Mono.just(BaseResponse.error("PASSWORDS_NOT_MATCH", "Mật khẩu xác nhận không khớp"));
         }
         
-        authService.resetPassword(request.getToken(), request.getNewPassword());
-        return Mono.just(BaseResponse.ok("Đặt lại mật khẩu thành công. Vui lòng đăng nhập với mật khẩu mới."));
+        return Mono.fromRunnable(() -> authService.resetPassword(request.getToken(), request.getNewPassword()))
+            .subscribeOn(credentialScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .thenReturn(BaseResponse.ok("Đặt lại mật khẩu thành công. Vui lòng đăng nhập với mật khẩu mới."));
     }
     
     /**
@@ -105,7 +130,13 @@ public class AuthController {
         }
         
         String username = authentication.getName();
-        authService.changePassword(username, request.getOldPassword(), request.getNewPassword());
-        return Mono.just(BaseResponse.ok("Thay đổi mật khẩu thành công."));
+        return Mono.fromRunnable(() -> authService.changePassword(username, request.getOldPassword(), request.getNewPassword()))
+            .subscribeOn(credentialScheduler)
+            .onErrorMap(RejectedExecutionException.class, this::serviceBusy)
+            .thenReturn(BaseResponse.ok("Thay đổi mật khẩu thành công."));
+    }
+    
+    private ServiceBusyException serviceBusy(RejectedExecutionException e) {
+        return new ServiceBusyException("SERVICE_BUSY", "Hệ thống đang bận. Vui lòng thử lại sau.", retryAfterSeconds);
     }
 }
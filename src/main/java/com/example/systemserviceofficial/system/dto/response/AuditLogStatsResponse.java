@@ -0,0 +1,25 @@
+package com.example.systemserviceofficial.system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogStatsResponse {
+    
+    private LocalDateTime bucketStart;
+    private String action;
+    private String status;
+    private Long userId;
+    private Long count;
+    private Double avgExecutionTime;
+    private Integer maxExecutionTime;
+    private Map<String, Long> executionTimeHistogram;
+}
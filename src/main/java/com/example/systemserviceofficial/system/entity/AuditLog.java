@@ -12,9 +12,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "sys_audit_log", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_action", columnList = "action"),
-    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_audit_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_audit_user_created_at_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_audit_action_created_at_id", columnList = "action, created_at, id"),
     @Index(name = "idx_trace_id", columnList = "trace_id")
 })
 public class AuditLog {
@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "sys_refresh_token", indexes = {
-    @Index(name = "idx_token", columnList = "token"),
+    @Index(name = "uk_refresh_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_refresh_access_token_hash", columnList = "access_token_hash"),
+    @Index(name = "idx_refresh_family", columnList = "family_id"),
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_expires_at", columnList = "expires_at")
 })
@@ -22,14 +24,23 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(unique = true, nullable = false, length = 500)
-    private String token;
+    /**
+     * SHA-256 của refresh token (xem TokenFingerprints)
+     */
+    @Column(name = "token_hash", unique = true, nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
     
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
-    @Column(name = "access_token", length = 500)
-    private String accessToken;
+    @Column(name = "access_token_hash", columnDefinition = "BINARY(32)")
+    private byte[] accessTokenHash;
+    
+    /**
+     * Chuỗi token sinh ra từ cùng một lần đăng nhập qua các lần refresh
+     */
+    @Column(name = "family_id", nullable = false, columnDefinition = "BINARY(16)")
+    private byte[] familyId;
     
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
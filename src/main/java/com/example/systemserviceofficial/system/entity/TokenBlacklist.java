@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "sys_token_blacklist", indexes = {
-    @Index(name = "idx_token", columnList = "token"),
+    @Index(name = "uk_token_blacklist_hash", columnList = "token_hash", unique = true),
     @Index(name = "idx_expires_at", columnList = "expires_at")
 })
 public class TokenBlacklist {
@@ -21,8 +21,11 @@ public class TokenBlacklist {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(unique = true, nullable = false, length = 500)
-    private String token;
+    /**
+     * SHA-256 của access token (xem TokenFingerprints)
+     */
+    @Column(name = "token_hash", unique = true, nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
     
     @Column(name = "user_id")
     private Long userId;
@@ -0,0 +1,33 @@
+package com.example.systemserviceofficial.system.enums;
+
+import com.example.commonserviceofficial.exception.BusinessException;
+
+public enum AuditExportFormat {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+    
+    private final String contentType;
+    private final String extension;
+    
+    AuditExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public static AuditExportFormat from(String value) {
+        for (AuditExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BusinessException("INVALID_EXPORT_FORMAT", "Định dạng xuất không hỗ trợ: " + value);
+    }
+}
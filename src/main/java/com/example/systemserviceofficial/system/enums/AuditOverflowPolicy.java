@@ -0,0 +1,13 @@
+package com.example.systemserviceofficial.system.enums;
+
+/**
+ * Hành vi của AuditLogWriter khi hàng đợi đầy.
+ */
+public enum AuditOverflowPolicy {
+    /** Chờ tối đa block-timeout-ms rồi bỏ sự kiện mới */
+    BLOCK,
+    /** Bỏ sự kiện cũ nhất trong hàng đợi để nhận sự kiện mới */
+    DROP_OLDEST,
+    /** Ghi sự kiện vào spool trên đĩa, được nạp lại vào DB theo thứ tự */
+    SPILL
+}
@@ -0,0 +1,97 @@
+package com.example.systemserviceofficial.system.event;
+
+import com.example.systemserviceofficial.system.entity.TokenBlacklist;
+import com.example.systemserviceofficial.system.repository.TokenBlacklistRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus dựa trên polling sys_token_blacklist theo con trỏ id tăng dần.
+ * Bản ghi blacklist chính là sự kiện, nên {@link #publish} không cần gửi gì thêm.
+ * <p>
+ * AUTO_INCREMENT cấp id lúc insert chứ không phải lúc commit, nên con trỏ chỉ
+ * được đẩy qua những dòng cũ hơn {@code commit-lag-ms}; các dòng mới hơn có thể
+ * được giao lại ở lần poll sau (listener phải idempotent).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.token.revocation-bus", name = "type", havingValue = "db-polling", matchIfMissing = true)
+public class DbPollingTokenRevocationBus implements TokenRevocationBus {
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+
+    private final List<Consumer<TokenRevokedEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Value("${app.token.revocation-bus.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.token.revocation-bus.commit-lag-ms:5000}")
+    private long commitLagMs;
+
+    private volatile long cursor;
+
+    @PostConstruct
+    void initCursor() {
+        cursor = tokenBlacklistRepository.findMaxId().orElse(0L);
+        log.info("Token revocation polling starts after id={}", cursor);
+    }
+
+    @Override
+    public void publish(TokenRevokedEvent event) {
+        // Bản ghi đã nằm trong sys_token_blacklist, các node khác sẽ poll được
+    }
+
+    @Override
+    public void subscribe(Consumer<TokenRevokedEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.token.revocation-bus.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            List<TokenBlacklist> rows;
+            do {
+                rows = tokenBlacklistRepository.findByIdGreaterThanOrderByIdAsc(
+                    cursor, PageRequest.of(0, batchSize));
+                LocalDateTime settledBefore = LocalDateTime.now().minusNanos(commitLagMs * 1_000_000);
+                long nextCursor = cursor;
+                boolean settled = true;
+                for (TokenBlacklist row : rows) {
+                    deliver(new TokenRevokedEvent(row.getTokenHash(), row.getExpiresAt(), row.getReason()));
+                    settled = settled && row.getCreatedAt() != null && row.getCreatedAt().isBefore(settledBefore);
+                    if (settled) {
+                        nextCursor = row.getId();
+                    }
+                }
+                if (nextCursor == cursor) {
+                    break;
+                }
+                cursor = nextCursor;
+            } while (rows.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Failed to poll token revocations", e);
+        }
+    }
+
+    private void deliver(TokenRevokedEvent event) {
+        for (Consumer<TokenRevokedEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.error("Token revocation listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.systemserviceofficial.system.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus in-process: giao sự kiện ngay cho các listener trong cùng JVM.
+ * Chỉ đúng khi chạy một node (hoặc trong test).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.token.revocation-bus", name = "type", havingValue = "local")
+public class LocalTokenRevocationBus implements TokenRevocationBus {
+
+    private final List<Consumer<TokenRevokedEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(TokenRevokedEvent event) {
+        for (Consumer<TokenRevokedEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.error("Token revocation listener failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<TokenRevokedEvent> listener) {
+        listeners.add(listener);
+    }
+}
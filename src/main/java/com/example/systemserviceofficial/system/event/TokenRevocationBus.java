@@ -0,0 +1,20 @@
+package com.example.systemserviceofficial.system.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Kênh lan truyền sự kiện thu hồi token tới mọi node, để mỗi node trả lời
+ * isBlacklisted hoàn toàn từ bộ nhớ.
+ * <p>
+ * Implementation được chọn qua {@code app.token.revocation-bus.type}:
+ * {@code local} (in-process, cho test/single node) hoặc {@code db-polling}.
+ */
+public interface TokenRevocationBus {
+
+    /**
+     * Phát sự kiện sau khi bản ghi blacklist đã được commit.
+     */
+    void publish(TokenRevokedEvent event);
+
+    void subscribe(Consumer<TokenRevokedEvent> listener);
+}
@@ -0,0 +1,9 @@
+package com.example.systemserviceofficial.system.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một token vừa bị thu hồi (blacklist), định danh bằng fingerprint SHA-256.
+ */
+public record TokenRevokedEvent(byte[] tokenHash, LocalDateTime expiresAt, String reason) {
+}
@@ -0,0 +1,20 @@
+package com.example.systemserviceofficial.system.exception;
+
+import lombok.Getter;
+
+/**
+ * Ném ra khi một tài nguyên giới hạn (thread pool, hàng đợi) đã bão hòa.
+ * Được trả về cho client dưới dạng HTTP 503 kèm header Retry-After.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+
+    private final String code;
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String code, String message, long retryAfterSeconds) {
+        super(message);
+        this.code = code;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
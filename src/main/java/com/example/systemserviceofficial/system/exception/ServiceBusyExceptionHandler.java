@@ -0,0 +1,25 @@
+package com.example.systemserviceofficial.system.exception;
+
+import com.example.commonserviceofficial.contract.BaseResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@Slf4j
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceBusyExceptionHandler {
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<BaseResponse<Void>> handleServiceBusy(ServiceBusyException ex) {
+        log.warn("Request rejected, service busy: code={}", ex.getCode());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(BaseResponse.error(ex.getCode(), ex.getMessage()));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.systemserviceofficial.system.filter;
+
+import com.example.commonserviceofficial.contract.BaseResponse;
+import com.example.commonserviceofficial.util.WebUtils;
+import com.example.systemserviceofficial.system.config.RateLimitProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Giới hạn request theo (IP client, route) bằng token bucket, chạy trước Spring Security
+ * nên request bị từ chối không đọc body, không chạm DB/BCrypt/SMTP.
+ * <p>
+ * Mỗi bucket là một {@link AtomicLong} cập nhật bằng CAS, đóng gói
+ * (thời điểm refill gần nhất, ms tính từ lúc khởi động &lt;&lt; 24 | số milli-token),
+ * nên capacity tối đa là {@value #MAX_CAPACITY}. Bucket nằm trong Caffeine, giới hạn
+ * số lượng và bị bỏ khi không dùng tới.
+ */
+@Slf4j
+public class RateLimitWebFilter implements WebFilter, Ordered {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+    private static final int MAX_CAPACITY = (int) (TOKEN_MASK / MILLI);
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Cache<String, AtomicLong> buckets;
+    private final byte[] rejectedBody;
+    private final long startedAt = System.currentTimeMillis();
+
+    public RateLimitWebFilter(RateLimitProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        properties.getRoutes().forEach((name, route) -> {
+            if (route.getPath() == null) {
+                throw new IllegalStateException("Rate limit route '" + name + "' has no path");
+            }
+            if (route.getCapacity() < 1 || route.getCapacity() > MAX_CAPACITY || route.getRefillPerSecond() <= 0) {
+                throw new IllegalStateException("Invalid rate limit for route '" + name
+                    + "': capacity must be 1.." + MAX_CAPACITY + " and refill-per-second positive");
+            }
+            routes.add(new Route(
+                name,
+                parser.parse(route.getPath()),
+                route.getMethod() != null ? HttpMethod.valueOf(route.getMethod().toUpperCase(Locale.ROOT)) : null,
+                route.getCapacity() * MILLI,
+                route.getRefillPerSecond(),
+                Counter.builder("rate.limit.rejected").tag("route", name).register(meterRegistry)
+            ));
+        });
+
+        buckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumKeys())
+            .expireAfterAccess(properties.getIdleExpiry())
+            .build();
+        Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+            .register(meterRegistry);
+
+        try {
+            rejectedBody = objectMapper.writeValueAsBytes(
+                BaseResponse.error("RATE_LIMITED", "Bạn đã gửi quá nhiều yêu cầu. Vui lòng thử lại sau."));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize rate limit response", e);
+        }
+        log.info("Rate limiting enabled for routes: {}", properties.getRoutes().keySet());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Route route = match(exchange);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = route.name + '|' + WebUtils.getClientIp(exchange);
+        long now = System.currentTimeMillis() - startedAt;
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong((now << TOKEN_BITS) | route.capacityMilli));
+        long waitMillis = tryConsume(bucket, route, now);
+        if (waitMillis == 0) {
+            return chain.filter(exchange);
+        }
+
+        route.rejected.increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitMillis + 999) / 1000)));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(rejectedBody)));
+    }
+
+    private Route match(ServerWebExchange exchange) {
+        if (routes.isEmpty()) {
+            return null;
+        }
+        HttpMethod method = exchange.getRequest().getMethod();
+        for (Route route : routes) {
+            if ((route.method == null || route.method.equals(method))
+                && route.pattern.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 0 nếu lấy được một token, ngược lại số ms cần chờ tới khi có token
+     */
+    private static long tryConsume(AtomicLong bucket, Route route, long now) {
+        while (true) {
+            long current = bucket.get();
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+
+            // refillPerSecond token/s = refillPerSecond milli-token/ms
+            long elapsed = Math.max(0, now - last);
+            long refill = (long) (elapsed * route.refillPerSecond);
+            long available = Math.min(route.capacityMilli, tokens + refill);
+            // Chỉ dời mốc thời gian khi đã cộng được token, để tốc độ refill nhỏ không bị làm tròn mất
+            long refilledAt = refill > 0 || available == route.capacityMilli ? now : last;
+
+            if (available < MILLI) {
+                if (refilledAt != last && !bucket.compareAndSet(current, (refilledAt << TOKEN_BITS) | available)) {
+                    continue;
+                }
+                return (long) Math.ceil((MILLI - available) / route.refillPerSecond);
+            }
+            if (bucket.compareAndSet(current, (refilledAt << TOKEN_BITS) | (available - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    private record Route(
+            String name,
+            PathPattern pattern,
+            HttpMethod method,
+            long capacityMilli,
+            double refillPerSecond,
+            Counter rejected) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.systemserviceofficial.system.repository;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Ghi audit log bằng một câu INSERT nhiều dòng thay vì mỗi dòng một transaction JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogBatchRepository {
+    
+    private static final String INSERT_PREFIX = "INSERT INTO sys_audit_log (" +
+        "trace_id, user_id, username, action, resource, method, request_url, request_params, " +
+        "request_body, response_status, response_body, ip_address, user_agent, execution_time, " +
+        "status, error_message, created_at) VALUES ";
+    
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public int insertAll(List<AuditLog> logs) {
+        if (logs.isEmpty()) {
+            return 0;
+        }
+        
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + logs.size() * (ROW_PLACEHOLDER.length() + 2))
+            .append(INSERT_PREFIX);
+        for (int i = 0; i < logs.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        
+        return jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (AuditLog log : logs) {
+                ps.setString(index++, log.getTraceId());
+                ps.setObject(index++, log.getUserId(), Types.BIGINT);
+                ps.setString(index++, log.getUsername());
+                ps.setString(index++, log.getAction());
+                ps.setString(index++, log.getResource());
+                ps.setString(index++, log.getMethod());
+                ps.setString(index++, log.getRequestUrl());
+                ps.setString(index++, log.getRequestParams());
+                ps.setString(index++, log.getRequestBody());
+                ps.setObject(index++, log.getResponseStatus(), Types.INTEGER);
+                ps.setString(index++, log.getResponseBody());
+                ps.setString(index++, log.getIpAddress());
+                ps.setString(index++, log.getUserAgent());
+                ps.setObject(index++, log.getExecutionTime(), Types.INTEGER);
+                ps.setString(index++, log.getStatus());
+                ps.setString(index++, log.getErrorMessage());
+                ps.setTimestamp(index++, log.getCreatedAt() != null ? Timestamp.valueOf(log.getCreatedAt()) : null);
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.systemserviceofficial.system.repository;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Đọc audit log theo con trỏ forward-only của MySQL (fetchSize = Integer.MIN_VALUE),
+ * driver trả từng dòng thay vì nạp toàn bộ kết quả vào bộ nhớ.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogExportRepository {
+    
+    private static final String SELECT = "SELECT id, trace_id, user_id, username, action, resource, method, " +
+        "request_url, response_status, ip_address, user_agent, execution_time, status, error_message, created_at " +
+        "FROM sys_audit_log WHERE created_at >= ? AND (? IS NULL OR created_at <= ?) " +
+        "AND (? IS NULL OR user_id = ?) AND (? IS NULL OR action = ?) " +
+        "ORDER BY created_at, id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void stream(
+            Long userId,
+            String action,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            Consumer<AuditLog> consumer) {
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                SELECT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setTimestamp(1, Timestamp.valueOf(startDate));
+            Timestamp end = endDate != null ? Timestamp.valueOf(endDate) : null;
+            ps.setTimestamp(2, end);
+            ps.setTimestamp(3, end);
+            ps.setObject(4, userId, Types.BIGINT);
+            ps.setObject(5, userId, Types.BIGINT);
+            ps.setString(6, action);
+            ps.setString(7, action);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapRow(rs));
+        });
+    }
+    
+    private static AuditLog mapRow(ResultSet rs) throws SQLException {
+        AuditLog log = new AuditLog();
+        log.setId(rs.getLong("id"));
+        log.setTraceId(rs.getString("trace_id"));
+        log.setUserId(rs.getObject("user_id", Long.class));
+        log.setUsername(rs.getString("username"));
+        log.setAction(rs.getString("action"));
+        log.setResource(rs.getString("resource"));
+        log.setMethod(rs.getString("method"));
+        log.setRequestUrl(rs.getString("request_url"));
+        log.setResponseStatus(rs.getObject("response_status", Integer.class));
+        log.setIpAddress(rs.getString("ip_address"));
+        log.setUserAgent(rs.getString("user_agent"));
+        log.setExecutionTime(rs.getObject("execution_time", Integer.class));
+        log.setStatus(rs.getString("status"));
+        log.setErrorMessage(rs.getString("error_message"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        log.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        return log;
+    }
+}
@@ -37,5 +37,40 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
         Pageable pageable
     );
     
+    /**
+     * Keyset pagination: lấy các bản ghi đứng sau (created_at, id) của cursor theo thứ tự giảm dần.
+     * Dùng index (created_at, id), chi phí mỗi trang không phụ thuộc độ sâu; startDate là bắt buộc
+     * để MySQL chỉ quét các partition trong khoảng thời gian.
+     */
+    @Query("SELECT a FROM AuditLog a WHERE " +
+           "(:userId IS NULL OR a.userId = :userId) AND " +
+           "(:action IS NULL OR a.action = :action) AND " +
+           "a.createdAt >= :startDate AND " +
+           "(:endDate IS NULL OR a.createdAt <= :endDate) AND " +
+           "(:cursorId IS NULL OR a.createdAt < :cursorCreatedAt OR " +
+           "(a.createdAt = :cursorCreatedAt AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLog> findByFiltersAfter(
+        @Param("userId") Long userId,
+        @Param("action") String action,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+    
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE " +
+           "(:userId IS NULL OR a.userId = :userId) AND " +
+           "(:action IS NULL OR a.action = :action) AND " +
+           "a.createdAt >= :startDate AND " +
+           "(:endDate IS NULL OR a.createdAt <= :endDate)")
+    long countByFilters(
+        @Param("userId") Long userId,
+        @Param("action") String action,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
     List<AuditLog> findTop10ByUserIdOrderByCreatedAtDesc(Long userId);
 }
@@ -0,0 +1,144 @@
+package com.example.systemserviceofficial.system.repository;
+
+import com.example.systemserviceofficial.system.dto.response.AuditLogStatsResponse;
+import com.example.systemserviceofficial.system.enums.RollupGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng tổng hợp sys_audit_log_rollup: cộng dồn bằng INSERT ... ON DUPLICATE KEY UPDATE.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogRollupRepository {
+    
+    public static final long[] HISTOGRAM_BOUNDS = {10, 50, 100, 500, 1000, 5000};
+    
+    private static final String[] HISTOGRAM_COLUMNS = {"le_10", "le_50", "le_100", "le_500", "le_1000", "le_5000", "le_inf"};
+    
+    private static final String UPSERT = "INSERT INTO sys_audit_log_rollup (" +
+        "granularity, bucket_start, action, status, user_id, request_count, total_time_ms, max_time_ms, " +
+        "le_10, le_50, le_100, le_500, le_1000, le_5000, le_inf) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) AS new " +
+        "ON DUPLICATE KEY UPDATE " +
+        "request_count = sys_audit_log_rollup.request_count + new.request_count, " +
+        "total_time_ms = sys_audit_log_rollup.total_time_ms + new.total_time_ms, " +
+        "max_time_ms = GREATEST(sys_audit_log_rollup.max_time_ms, new.max_time_ms), " +
+        "le_10 = sys_audit_log_rollup.le_10 + new.le_10, " +
+        "le_50 = sys_audit_log_rollup.le_50 + new.le_50, " +
+        "le_100 = sys_audit_log_rollup.le_100 + new.le_100, " +
+        "le_500 = sys_audit_log_rollup.le_500 + new.le_500, " +
+        "le_1000 = sys_audit_log_rollup.le_1000 + new.le_1000, " +
+        "le_5000 = sys_audit_log_rollup.le_5000 + new.le_5000, " +
+        "le_inf = sys_audit_log_rollup.le_inf + new.le_inf";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void upsertAll(List<RollupRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.granularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(row.bucketStart()));
+            ps.setString(3, row.action());
+            ps.setString(4, row.status());
+            ps.setLong(5, row.userId());
+            ps.setLong(6, row.count());
+            ps.setLong(7, row.totalTimeMs());
+            ps.setInt(8, row.maxTimeMs());
+            for (int i = 0; i < HISTOGRAM_COLUMNS.length; i++) {
+                ps.setLong(9 + i, row.histogram()[i]);
+            }
+        });
+    }
+    
+    public List<AuditLogStatsResponse> findStats(
+            RollupGranularity granularity,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String action,
+            Long userId,
+            boolean groupByUser) {
+        
+        StringBuilder sql = new StringBuilder("SELECT bucket_start, action, status")
+            .append(groupByUser ? ", user_id" : "")
+            .append(", SUM(request_count), SUM(total_time_ms), MAX(max_time_ms)");
+        for (String column : HISTOGRAM_COLUMNS) {
+            sql.append(", SUM(").append(column).append(')');
+        }
+        sql.append(" FROM sys_audit_log_rollup WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?");
+        
+        List<Object> args = new ArrayList<>();
+        args.add(granularity.name());
+        args.add(Timestamp.valueOf(startDate));
+        args.add(Timestamp.valueOf(endDate));
+        if (action != null) {
+            sql.append(" AND action = ?");
+            args.add(action);
+        }
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        sql.append(" GROUP BY bucket_start, action, status")
+            .append(groupByUser ? ", user_id" : "")
+            .append(" ORDER BY bucket_start, action, status");
+        
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            int column = 1;
+            LocalDateTime bucketStart = rs.getTimestamp(column++).toLocalDateTime();
+            String rowAction = rs.getString(column++);
+            String status = rs.getString(column++);
+            Long rowUserId = groupByUser ? rs.getLong(column++) : null;
+            long count = rs.getLong(column++);
+            long totalTime = rs.getLong(column++);
+            int maxTime = rs.getInt(column++);
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (String histogramColumn : HISTOGRAM_COLUMNS) {
+                histogram.put(histogramColumn, rs.getLong(column++));
+            }
+            return AuditLogStatsResponse.builder()
+                .bucketStart(bucketStart)
+                .action(rowAction)
+                .status(status)
+                .userId(rowUserId)
+                .count(count)
+                .avgExecutionTime(count > 0 ? (double) totalTime / count : null)
+                .maxExecutionTime(maxTime)
+                .executionTimeHistogram(histogram)
+                .build();
+        }, args.toArray());
+    }
+    
+    public int deleteBefore(RollupGranularity granularity, LocalDateTime before, int limit) {
+        return jdbcTemplate.update(
+            "DELETE FROM sys_audit_log_rollup WHERE granularity = ? AND bucket_start < ? LIMIT ?",
+            granularity.name(), Timestamp.valueOf(before), limit
+        );
+    }
+    
+    /**
+     * @param histogram số request theo {@link #HISTOGRAM_BOUNDS}, phần tử cuối là phần vượt mốc lớn nhất
+     */
+    public record RollupRow(
+        RollupGranularity granularity,
+        LocalDateTime bucketStart,
+        String action,
+        String status,
+        long userId,
+        long count,
+        long totalTimeMs,
+        int maxTimeMs,
+        long[] histogram
+    ) {
+    }
+}
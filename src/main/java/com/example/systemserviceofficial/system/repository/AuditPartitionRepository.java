@@ -0,0 +1,110 @@
+package com.example.systemserviceofficial.system.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Truy vấn/DDL partition của sys_audit_log (MySQL RANGE COLUMNS trên created_at).
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditPartitionRepository {
+    
+    public static final String TABLE = "sys_audit_log";
+    public static final String FUTURE_PARTITION = "p_future";
+    
+    private static final String LOCK_NAME = "sys_audit_log_partition_maintenance";
+    private static final DateTimeFormatter BOUNDARY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Chạy {@code work} khi giữ được named lock của MySQL (các node khác bỏ qua lượt này).
+     * Mọi câu lệnh trong {@code work} dùng chung một connection.
+     */
+    public <T> T withMaintenanceLock(Function<Connection, T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                lock.setString(1, LOCK_NAME);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        return null;
+                    }
+                }
+            }
+            try {
+                return work.apply(connection);
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, LOCK_NAME);
+                    release.executeQuery().close();
+                }
+            }
+        });
+    }
+    
+    public List<Partition> findPartitions(Connection connection) {
+        String sql = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, TABLE);
+            List<Partition> partitions = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(new Partition(rs.getString(1), parseBoundary(rs.getString(2))));
+                }
+            }
+            return partitions;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read partitions of " + TABLE, e);
+        }
+    }
+    
+    /**
+     * Tách partition mới [.., upperBound) ra khỏi p_future (p_future còn rỗng nên không phải chép dữ liệu).
+     */
+    public void addPartition(Connection connection, String name, LocalDateTime upperBound) {
+        execute(connection, "ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+            "PARTITION " + name + " VALUES LESS THAN ('" + upperBound.format(BOUNDARY_FORMAT) + "'), " +
+            "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+    
+    public void dropPartition(Connection connection, String name) {
+        execute(connection, "ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+    }
+    
+    private void execute(Connection connection, String ddl) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(ddl);
+        } catch (Exception e) {
+            throw new IllegalStateException("Partition DDL failed: " + ddl, e);
+        }
+    }
+    
+    private static LocalDateTime parseBoundary(String description) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        return LocalDateTime.parse(value.length() == 10 ? value + " 00:00:00" : value, BOUNDARY_FORMAT);
+    }
+    
+    /**
+     * @param upperBound giới hạn trên (không bao gồm), null với p_future
+     */
+    public record Partition(String name, LocalDateTime upperBound) {
+    }
+}
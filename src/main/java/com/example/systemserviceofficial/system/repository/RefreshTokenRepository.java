@@ -2,6 +2,9 @@ package com.example.systemserviceofficial.system.repository;
 
 import com.example.systemserviceofficial.system.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,15 +14,58 @@ import java.util.Optional;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
     
-    Optional<RefreshToken> findByAccessToken(String accessToken);
+    Optional<RefreshToken> findByAccessTokenHash(byte[] accessTokenHash);
     
     List<RefreshToken> findByUserId(Long userId);
     
     List<RefreshToken> findByExpiresAtBeforeAndRevokedFalse(LocalDateTime dateTime);
     
-    void deleteByExpiresAtBefore(LocalDateTime dateTime);
+    boolean existsByTokenHashAndRevokedFalseAndExpiresAtAfter(byte[] tokenHash, LocalDateTime now);
+    
+    /**
+     * Thu hồi token nếu nó còn hiệu lực; trả về 0 nếu token không tồn tại, đã hết hạn
+     * hoặc đã bị thu hồi (ví dụ đã được rotate bởi request khác).
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now " +
+           "WHERE t.tokenHash = :tokenHash AND t.revoked = false AND t.expiresAt > :now")
+    int revokeIfActive(@Param("tokenHash") byte[] tokenHash, @Param("now") LocalDateTime now);
+    
+    /**
+     * Phát hành token mới kế thừa user và family của token cũ.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sys_refresh_token " +
+                   "(token_hash, user_id, access_token_hash, family_id, expires_at, revoked, created_at) " +
+                   "SELECT :newTokenHash, user_id, :accessTokenHash, family_id, :expiresAt, FALSE, :now " +
+                   "FROM sys_refresh_token WHERE token_hash = :oldTokenHash",
+           nativeQuery = true)
+    int insertRotated(
+        @Param("oldTokenHash") byte[] oldTokenHash,
+        @Param("newTokenHash") byte[] newTokenHash,
+        @Param("accessTokenHash") byte[] accessTokenHash,
+        @Param("expiresAt") LocalDateTime expiresAt,
+        @Param("now") LocalDateTime now
+    );
+    
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now " +
+           "WHERE t.familyId = :familyId AND t.revoked = false")
+    int revokeFamily(@Param("familyId") byte[] familyId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now " +
+           "WHERE t.userId = :userId AND t.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
+    /**
+     * Xóa token đã hết hạn. Token đã thu hồi được giữ tới khi hết hạn để vẫn phát hiện dùng lại.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpiredBefore(@Param("now") LocalDateTime now);
     
     void deleteByUserId(Long userId);
 }
@@ -1,7 +1,9 @@
 package com.example.systemserviceofficial.system.repository;
 
 import com.example.systemserviceofficial.system.entity.TokenBlacklist;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,9 +13,18 @@ import java.util.Optional;
 @Repository
 public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist, Long> {
     
-    Optional<TokenBlacklist> findByToken(String token);
+    Optional<TokenBlacklist> findByTokenHash(byte[] tokenHash);
     
-    boolean existsByToken(String token);
+    boolean existsByTokenHash(byte[] tokenHash);
+    
+    long countByExpiresAtAfter(LocalDateTime dateTime);
+    
+    List<TokenBlacklist> findByExpiresAtAfter(LocalDateTime dateTime);
+    
+    List<TokenBlacklist> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    @Query("SELECT MAX(t.id) FROM TokenBlacklist t")
+    Optional<Long> findMaxId();
     
     List<TokenBlacklist> findByExpiresAtBefore(LocalDateTime dateTime);
     
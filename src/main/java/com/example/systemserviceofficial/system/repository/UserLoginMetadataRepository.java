@@ -0,0 +1,41 @@
+package com.example.systemserviceofficial.system.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cập nhật thông tin đăng nhập gần nhất theo lô bằng JDBC batch, chỉ đụng tới hai cột.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserLoginMetadataRepository {
+    
+    /**
+     * Không ghi đè bằng giá trị cũ hơn (node khác có thể đã flush lần đăng nhập mới hơn).
+     */
+    private static final String UPDATE_SQL = "UPDATE sys_user SET last_login_at = ?, last_login_ip = ? " +
+        "WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void updateAll(List<LastLogin> logins) {
+        if (logins.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, logins, logins.size(), (ps, login) -> {
+            Timestamp loginAt = Timestamp.valueOf(login.loginAt());
+            ps.setTimestamp(1, loginAt);
+            ps.setString(2, login.ipAddress());
+            ps.setLong(3, login.userId());
+            ps.setTimestamp(4, loginAt);
+        });
+    }
+    
+    public record LastLogin(Long userId, LocalDateTime loginAt, String ipAddress) {
+    }
+}
@@ -4,11 +4,17 @@ import com.example.systemserviceofficial.system.entity.User;
 import com.example.systemserviceofficial.system.enums.UserStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,8 +30,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByResetToken(String resetToken);
     
-    @Query("SELECT u FROM User u  WHERE u.username = :username")
-    Optional<User> findByUsernameWithRoles(@Param("username") String username);
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+    
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesById(Long id);
+    
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
+    Optional<User> findWithRolesAndPermissionsById(Long id);
+    
+    /**
+     * Nạp user kèm roles cho một trang id đã phân trang trước (tránh phân trang trong bộ nhớ khi fetch collection).
+     */
+    @EntityGraph(attributePaths = "roles")
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findAllWithRolesByIdIn(@Param("ids") Collection<Long> ids);
     
     @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL AND " +
            "(LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -33,7 +52,75 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<User> searchUsers(@Param("search") String search, Pageable pageable);
     
+    @Query(value = "SELECT u.id FROM User u WHERE u.deletedAt IS NULL AND " +
+           "(LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')))",
+           countQuery = "SELECT COUNT(u) FROM User u WHERE u.deletedAt IS NULL AND " +
+           "(LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Page<Long> searchUserIds(@Param("search") String search, Pageable pageable);
+    
     Page<User> findByStatusAndDeletedAtIsNull(UserStatus status, Pageable pageable);
     
     Page<User> findByDeletedAtIsNull(Pageable pageable);
+    
+    @Query(value = "SELECT u.id FROM User u WHERE u.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(u) FROM User u WHERE u.deletedAt IS NULL")
+    Page<Long> findIdsByDeletedAtIsNull(Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.lockedUntil = NULL WHERE u.id = :id")
+    int clearLoginFailures(@Param("id") Long id);
+    
+    /**
+     * Các UPDATE có chủ đích không đi qua @PreUpdate nên tự set updated_at.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = :now WHERE u.id = :id")
+    int updatePassword(
+        @Param("id") Long id,
+        @Param("password") String password,
+        @Param("now") LocalDateTime now
+    );
+    
+    @Modifying
+    @Query("UPDATE User u SET u.resetToken = :resetToken, u.resetTokenExpiry = :resetTokenExpiry, " +
+           "u.updatedAt = :now WHERE u.id = :id")
+    int updateResetToken(
+        @Param("id") Long id,
+        @Param("resetToken") String resetToken,
+        @Param("resetTokenExpiry") LocalDateTime resetTokenExpiry,
+        @Param("now") LocalDateTime now
+    );
+    
+    /**
+     * Đặt mật khẩu mới bằng reset token; trả về 0 nếu token đã được dùng.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.resetToken = NULL, u.resetTokenExpiry = NULL, " +
+           "u.failedLoginAttempts = 0, u.lockedUntil = NULL, u.updatedAt = :now " +
+           "WHERE u.id = :id AND u.resetToken = :resetToken")
+    int resetPassword(
+        @Param("id") Long id,
+        @Param("resetToken") String resetToken,
+        @Param("password") String password,
+        @Param("now") LocalDateTime now
+    );
+    
+    /**
+     * Các lệnh ghi của login tự mở transaction: login không chạy trong transaction
+     * (không giữ connection trong lúc BCrypt) và ném exception khi thất bại.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lockedUntil = :lockedUntil, u.failedLoginAttempts = :attempts WHERE u.id = :id")
+    int lockAccount(
+        @Param("id") Long id,
+        @Param("lockedUntil") LocalDateTime lockedUntil,
+        @Param("attempts") int attempts
+    );
 }
@@ -0,0 +1,23 @@
+package com.example.systemserviceofficial.system.scheduled;
+
+import com.example.systemserviceofficial.system.service.AuditPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.audit.partition", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditPartitionJob {
+    
+    private final AuditPartitionService auditPartitionService;
+    
+    @Scheduled(cron = "${app.audit.partition.cron:0 30 1 * * ?}")
+    public void maintainPartitions() {
+        log.info("Starting audit partition maintenance...");
+        auditPartitionService.maintain();
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import com.example.systemserviceofficial.system.enums.AuditExportFormat;
+import com.example.systemserviceofficial.system.exception.ServiceBusyException;
+import com.example.systemserviceofficial.system.repository.AuditLogExportRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Xuất audit log dạng CSV/XLSX theo luồng: dòng được đọc bằng con trỏ JDBC và ghi thẳng
+ * vào {@link OutputStream} của {@link DataBufferUtils#outputStreamPublisher}, thread ghi bị
+ * chặn khi client chưa yêu cầu thêm dữ liệu (backpressure), nên bộ nhớ không phụ thuộc số dòng.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditLogExportService {
+    
+    private static final String[] HEADERS = {
+        "ID", "Trace ID", "User ID", "Username", "Action", "Resource", "Method", "URL",
+        "Response Status", "IP Address", "User Agent", "Execution Time (ms)", "Status", "Error", "Created At"
+    };
+    
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    /**
+     * Giới hạn số dòng dữ liệu trên một sheet XLSX (1.048.576 dòng trừ dòng tiêu đề).
+     */
+    private static final int XLSX_MAX_ROWS_PER_SHEET = 1_048_575;
+    
+    private final AuditLogExportRepository auditLogExportRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.audit.export.threads:2}")
+    private int threads;
+    
+    @Value("${app.audit.export.queue-capacity:4}")
+    private int queueCapacity;
+    
+    @Value("${app.audit.export.chunk-size:65536}")
+    private int chunkSize;
+    
+    @Value("${app.audit.export.xlsx-window-size:200}")
+    private int xlsxWindowSize;
+    
+    @Value("${app.audit.export.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+    
+    private ThreadPoolExecutor executor;
+    private Semaphore permits;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "audit-export-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        new ExecutorServiceMetrics(executor, "audit-export", Tags.empty()).bindTo(meterRegistry);
+        // Đủ permit cho thread + hàng đợi, nên executor không bao giờ phải từ chối
+        permits = new Semaphore(threads + queueCapacity);
+    }
+    
+    public Flux<DataBuffer> export(
+            AuditExportFormat format,
+            Long userId,
+            String action,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            DataBufferFactory bufferFactory) {
+        
+        return Flux.defer(() -> {
+            if (!permits.tryAcquire()) {
+                return Flux.error(new ServiceBusyException(
+                    "EXPORT_BUSY",
+                    "Đang có quá nhiều yêu cầu xuất dữ liệu. Vui lòng thử lại sau.",
+                    retryAfterSeconds
+                ));
+            }
+            return DataBufferUtils.outputStreamPublisher(
+                    out -> write(format, userId, action, startDate, endDate, out),
+                    bufferFactory,
+                    executor,
+                    chunkSize
+                )
+                .doFinally(signal -> permits.release());
+        });
+    }
+    
+    private void write(
+            AuditExportFormat format,
+            Long userId,
+            String action,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            OutputStream out) {
+        
+        long started = System.nanoTime();
+        AtomicInteger rows = new AtomicInteger();
+        try {
+            switch (format) {
+                case CSV -> writeCsv(userId, action, startDate, endDate, out, rows);
+                case XLSX -> writeXlsx(userId, action, startDate, endDate, out, rows);
+            }
+            log.info("Audit log export completed: format={}, rows={}, took={}ms",
+                format, rows.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeCsv(
+            Long userId,
+            String action,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            OutputStream out,
+            AtomicInteger rows) throws IOException {
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM để Excel nhận đúng UTF-8 (tiếng Việt)
+        writer.write('\uFEFF');
+        writeCsvLine(writer, HEADERS);
+        auditLogExportRepository.stream(userId, action, startDate, endDate, log -> {
+            try {
+                writeCsvLine(writer, values(log));
+                rows.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+    
+    private void writeXlsx(
+            Long userId,
+            String action,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            OutputStream out,
+            AtomicInteger rows) throws IOException {
+        
+        // Chỉ giữ xlsxWindowSize dòng trong bộ nhớ, phần còn lại được xả ra file tạm
+        SXSSFWorkbook workbook = new SXSSFWorkbook(xlsxWindowSize);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet[] sheet = {newSheet(workbook)};
+            AtomicInteger rowIndex = new AtomicInteger(1);
+            auditLogExportRepository.stream(userId, action, startDate, endDate, log -> {
+                if (rowIndex.get() > XLSX_MAX_ROWS_PER_SHEET) {
+                    sheet[0] = newSheet(workbook);
+                    rowIndex.set(1);
+                }
+                Row row = sheet[0].createRow(rowIndex.getAndIncrement());
+                String[] values = values(log);
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        row.createCell(i).setCellValue(values[i]);
+                    }
+                }
+                rows.incrementAndGet();
+            });
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    
+    private static Sheet newSheet(SXSSFWorkbook workbook) {
+        Sheet sheet = workbook.createSheet("Audit Logs " + (workbook.getNumberOfSheets() + 1));
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            header.createCell(i).setCellValue(HEADERS[i]);
+        }
+        return sheet;
+    }
+    
+    private static String[] values(AuditLog log) {
+        return new String[] {
+            String.valueOf(log.getId()),
+            log.getTraceId(),
+            log.getUserId() != null ? String.valueOf(log.getUserId()) : null,
+            log.getUsername(),
+            log.getAction(),
+            log.getResource(),
+            log.getMethod(),
+            log.getRequestUrl(),
+            log.getResponseStatus() != null ? String.valueOf(log.getResponseStatus()) : null,
+            log.getIpAddress(),
+            log.getUserAgent(),
+            log.getExecutionTime() != null ? String.valueOf(log.getExecutionTime()) : null,
+            log.getStatus(),
+            log.getErrorMessage(),
+            log.getCreatedAt() != null ? log.getCreatedAt().format(DATE_TIME_FORMAT) : null
+        };
+    }
+    
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+    
+    private static String escapeCsv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String escaped = value;
+        // Chặn CSV injection khi mở bằng Excel
+        char first = escaped.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            escaped = "'" + escaped;
+        }
+        if (escaped.indexOf(',') >= 0 || escaped.indexOf('"') >= 0
+                || escaped.indexOf('\n') >= 0 || escaped.indexOf('\r') >= 0) {
+            escaped = '"' + escaped.replace("\"", "\"\"") + '"';
+        }
+        return escaped;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
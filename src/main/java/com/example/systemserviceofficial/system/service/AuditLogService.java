@@ -1,13 +1,16 @@
 package com.example.systemserviceofficial.system.service;
 
+import com.example.systemserviceofficial.system.dto.response.AuditLogCursorPage;
 import com.example.systemserviceofficial.system.dto.response.AuditLogResponse;
 import com.example.systemserviceofficial.system.entity.AuditLog;
 import com.example.systemserviceofficial.system.repository.AuditLogRepository;
+import com.example.systemserviceofficial.system.util.AuditLogCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,17 +24,14 @@ public class AuditLogService {
     
     private final AuditLogRepository auditLogRepository;
     
-    @Async
-    @Transactional
-    public void saveAsync(AuditLog auditLog) {
-        try {
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log saved: action={}, user={}", 
-                auditLog.getAction(), auditLog.getUsername());
-        } catch (Exception e) {
-            log.error("Failed to save audit log", e);
-        }
-    }
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+    
+    /**
+     * Khoảng thời gian mặc định của endpoint cursor và export khi không truyền startDate,
+     * để các truy vấn này luôn được giới hạn partition. Endpoint offset không áp dụng.
+     */
+    @Value("${app.audit.query.default-lookback-days:90}")
+    private int defaultLookbackDays;
     
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> findByFilters(
@@ -45,6 +45,50 @@ public class AuditLogService {
             .map(this::toResponse);
     }
     
+    /**
+     * Trang audit log theo cursor (created_at, id); chỉ đếm tổng khi includeTotal = true.
+     */
+    @Transactional(readOnly = true)
+    public AuditLogCursorPage findByCursor(
+            Long userId,
+            String action,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String cursor,
+            int size,
+            boolean includeTotal) {
+        
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        LocalDateTime from = since(startDate);
+        AuditLogCursor after = cursor != null && !cursor.isBlank() ? AuditLogCursor.decode(cursor) : null;
+        
+        // Lấy thêm 1 bản ghi để biết còn trang sau hay không
+        List<AuditLog> rows = auditLogRepository.findByFiltersAfter(
+            userId, action, from, endDate,
+            after != null ? after.createdAt() : null,
+            after != null ? after.id() : null,
+            PageRequest.of(0, pageSize + 1)
+        );
+        
+        boolean hasNext = rows.size() > pageSize;
+        List<AuditLog> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            AuditLog last = page.get(page.size() - 1);
+            nextCursor = new AuditLogCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return AuditLogCursorPage.builder()
+            .content(page.stream().map(this::toResponse).toList())
+            .size(pageSize)
+            .hasNext(hasNext)
+            .nextCursor(nextCursor)
+            .totalElements(includeTotal
+                ? auditLogRepository.countByFilters(userId, action, from, endDate)
+                : null)
+            .build();
+    }
+    
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> findByUserId(Long userId, Pageable pageable) {
         return auditLogRepository.findByUserId(userId, pageable)
@@ -66,6 +110,10 @@ public class AuditLogService {
             .orElse(null);
     }
     
+    public LocalDateTime since(LocalDateTime startDate) {
+        return startDate != null ? startDate : LocalDateTime.now().minusDays(defaultLookbackDays);
+    }
+    
     private AuditLogResponse toResponse(AuditLog log) {
         return AuditLogResponse.builder()
             .id(log.getId())
@@ -0,0 +1,246 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import com.example.systemserviceofficial.system.enums.AuditOverflowPolicy;
+import com.example.systemserviceofficial.system.repository.AuditLogBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi audit log qua một hàng đợi vòng có giới hạn: một thread duy nhất gom các bản ghi
+ * và ghi bằng INSERT nhiều dòng khi đủ {@code batch-size} hoặc sau {@code flush-interval-ms}.
+ * Khi hàng đợi đầy, xử lý theo {@link AuditOverflowPolicy}.
+ * <p>
+ * Khi ghi DB lỗi, lô được chuyển vào {@link AuditSpool}; trong lúc spool còn dữ liệu,
+ * các lô mới cũng đi vào spool để giữ thứ tự, và thread replay nạp lại vào DB khi DB hồi phục.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditLogWriter {
+
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final AuditSpool auditSpool;
+    private final AuditRollupService auditRollupService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.audit.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.writer.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.writer.overflow-policy:DROP_OLDEST}")
+    private AuditOverflowPolicy overflowPolicy;
+
+    @Value("${app.audit.writer.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    @Value("${app.audit.spool.replay-max-backoff-ms:30000}")
+    private long replayMaxBackoffMs;
+
+    private ArrayBlockingQueue<AuditLog> queue;
+    private Thread flusher;
+    private Thread replayer;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter spilledCounter;
+    private Counter droppedOverflow;
+    private Counter droppedSpoolError;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("audit.writer.queue.depth", queue, ArrayBlockingQueue::size)
+            .register(meterRegistry);
+        flushTimer = Timer.builder("audit.writer.flush")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        writtenCounter = Counter.builder("audit.writer.written")
+            .register(meterRegistry);
+        spilledCounter = Counter.builder("audit.writer.spilled")
+            .register(meterRegistry);
+        droppedOverflow = Counter.builder("audit.writer.dropped")
+            .tag("reason", "overflow")
+            .register(meterRegistry);
+        droppedSpoolError = Counter.builder("audit.writer.dropped")
+            .tag("reason", "spool_error")
+            .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        replayer = new Thread(this::runReplayLoop, "audit-spool-replay");
+        replayer.setDaemon(true);
+        replayer.start();
+
+        log.info("Audit writer started: queueCapacity={}, batchSize={}, flushIntervalMs={}, overflowPolicy={}",
+            queueCapacity, batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    /**
+     * Không bao giờ ném lỗi ra luồng nghiệp vụ; mất sự kiện được phản ánh qua metric.
+     */
+    public void submit(AuditLog auditLog) {
+        if (auditLog.getCreatedAt() == null) {
+            auditLog.setCreatedAt(LocalDateTime.now());
+        }
+        if (queue.offer(auditLog)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(auditLog, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        droppedOverflow.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedOverflow.increment();
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(auditLog)) {
+                    if (queue.poll() != null) {
+                        droppedOverflow.increment();
+                    }
+                }
+            }
+            case SPILL -> spill(List.of(auditLog));
+        }
+    }
+
+    private void runFlushLoop() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Gom thêm cho tới khi đủ lô hoặc hết flush interval tính từ bản ghi đầu
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Khi shutdown: xả nốt hàng đợi trước khi thoát
+                queue.drainTo(batch);
+                flush(batch);
+                if (!running) {
+                    return;
+                }
+            } catch (Exception e) {
+                log.error("Audit writer loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (auditSpool.hasPending()) {
+            // Spool chưa nạp hết: xếp sau để giữ thứ tự
+            spill(batch);
+            return;
+        }
+        try {
+            flushTimer.record(() -> insert(batch));
+        } catch (Exception e) {
+            log.warn("Failed to flush {} audit logs, spooling to disk: {}", batch.size(), e.getMessage());
+            spill(batch);
+        }
+    }
+
+    private void runReplayLoop() {
+        long backoffMs = flushIntervalMs;
+        while (running) {
+            try {
+                AuditSpool.Batch batch = auditSpool.hasPending() ? auditSpool.readBatch(batchSize) : null;
+                if (batch == null || batch.isEmpty()) {
+                    Thread.sleep(flushIntervalMs);
+                    continue;
+                }
+                flushTimer.record(() -> insert(batch.records()));
+                auditSpool.acknowledge(batch);
+                backoffMs = flushIntervalMs;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Audit spool replay failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, replayMaxBackoffMs);
+            }
+        }
+    }
+
+    private void insert(List<AuditLog> batch) {
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<AuditLog> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+            auditLogBatchRepository.insertAll(chunk);
+            auditRollupService.accumulate(chunk);
+        }
+        writtenCounter.increment(batch.size());
+    }
+
+    private void spill(List<AuditLog> logs) {
+        try {
+            auditSpool.append(logs);
+            spilledCounter.increment(logs.size());
+        } catch (Exception e) {
+            log.error("Failed to spool {} audit logs", logs.size(), e);
+            droppedSpoolError.increment(logs.size());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        replayer.interrupt();
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        replayer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.repository.AuditPartitionRepository;
+import com.example.systemserviceofficial.system.repository.AuditPartitionRepository.Partition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Quản lý partition theo thời gian của sys_audit_log: tạo trước các partition sắp tới
+ * và DROP PARTITION những partition đã quá thời gian lưu trữ.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.audit.partition", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditPartitionService {
+    
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    private final AuditPartitionRepository auditPartitionRepository;
+    
+    /**
+     * MONTHS | WEEKS | DAYS
+     */
+    @Value("${app.audit.partition.period:MONTHS}")
+    private ChronoUnit period;
+    
+    @Value("${app.audit.partition.precreate-ahead:3}")
+    private int precreateAhead;
+    
+    @Value("${app.audit.partition.retention-periods:12}")
+    private int retentionPeriods;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+    
+    public void maintain() {
+        try {
+            Boolean done = auditPartitionRepository.withMaintenanceLock(connection -> {
+                List<Partition> partitions = auditPartitionRepository.findPartitions(connection);
+                if (partitions.isEmpty()) {
+                    log.warn("{} is not partitioned, skipping maintenance", AuditPartitionRepository.TABLE);
+                    return Boolean.FALSE;
+                }
+                
+                LocalDateTime currentPeriod = periodStart(LocalDateTime.now());
+                
+                // Tạo trước các partition tới hết (hiện tại + precreateAhead)
+                LocalDateTime lastBound = partitions.stream()
+                    .map(Partition::upperBound)
+                    .filter(Objects::nonNull)
+                    .max(LocalDateTime::compareTo)
+                    .orElse(currentPeriod);
+                LocalDateTime target = currentPeriod.plus(precreateAhead + 1L, period);
+                int created = 0;
+                while (lastBound.isBefore(target)) {
+                    LocalDateTime next = lastBound.plus(1, period);
+                    auditPartitionRepository.addPartition(connection, nameFor(lastBound), next);
+                    lastBound = next;
+                    created++;
+                }
+                
+                // Xóa nguyên partition đã quá hạn lưu trữ
+                LocalDateTime cutoff = currentPeriod.minus(retentionPeriods, period);
+                int dropped = 0;
+                for (Partition partition : partitions) {
+                    if (partition.upperBound() != null && !partition.upperBound().isAfter(cutoff)) {
+                        auditPartitionRepository.dropPartition(connection, partition.name());
+                        dropped++;
+                    }
+                }
+                
+                log.info("Audit log partitions maintained: created={}, dropped={}, retainedFrom={}",
+                    created, dropped, cutoff);
+                return Boolean.TRUE;
+            });
+            
+            if (done == null) {
+                log.debug("Audit partition maintenance is running on another node");
+            }
+        } catch (Exception e) {
+            log.error("Audit partition maintenance failed", e);
+        }
+    }
+    
+    private LocalDateTime periodStart(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        return switch (period) {
+            case MONTHS -> date.withDayOfMonth(1).atStartOfDay();
+            case WEEKS -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case DAYS -> date.atStartOfDay();
+            default -> throw new IllegalStateException("Unsupported audit partition period: " + period);
+        };
+    }
+    
+    private static String nameFor(LocalDateTime lowerBound) {
+        return "p" + lowerBound.format(NAME_FORMAT);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.dto.response.AuditLogStatsResponse;
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import com.example.systemserviceofficial.system.enums.RollupGranularity;
+import com.example.systemserviceofficial.system.repository.AuditLogRollupRepository;
+import com.example.systemserviceofficial.system.repository.AuditLogRollupRepository.RollupRow;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cộng dồn audit log đã ghi vào các bucket theo phút/giờ (action, status, user, histogram
+ * thời gian xử lý) trong bộ nhớ, định kỳ upsert vào sys_audit_log_rollup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditRollupService {
+    
+    private static final long ANONYMOUS_USER_ID = 0L;
+    private static final int PURGE_BATCH_SIZE = 10_000;
+    
+    private final AuditLogRollupRepository auditLogRollupRepository;
+    
+    @Value("${app.audit.rollup.minute-retention-days:7}")
+    private int minuteRetentionDays;
+    
+    @Value("${app.audit.rollup.default-range-hours:24}")
+    private int defaultRangeHours;
+    
+    private Map<BucketKey, Counters> pending = new HashMap<>();
+    
+    /**
+     * Gọi sau khi các bản ghi đã được ghi vào sys_audit_log.
+     */
+    public synchronized void accumulate(List<AuditLog> logs) {
+        for (AuditLog log : logs) {
+            LocalDateTime createdAt = log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.now();
+            String status = log.getStatus() != null ? log.getStatus() : "UNKNOWN";
+            long userId = log.getUserId() != null ? log.getUserId() : ANONYMOUS_USER_ID;
+            int executionTime = log.getExecutionTime() != null ? log.getExecutionTime() : 0;
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                BucketKey key = new BucketKey(granularity, granularity.bucketOf(createdAt), log.getAction(), status, userId);
+                pending.computeIfAbsent(key, k -> new Counters()).add(executionTime);
+            }
+        }
+    }
+    
+    public List<AuditLogStatsResponse> findStats(
+            RollupGranularity granularity,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String action,
+            Long userId,
+            boolean groupByUser) {
+        
+        LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+        LocalDateTime from = startDate != null ? startDate : to.minusHours(defaultRangeHours);
+        return auditLogRollupRepository.findStats(granularity, from, to, action, userId, groupByUser);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.audit.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        Map<BucketKey, Counters> snapshot;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            snapshot = pending;
+            pending = new HashMap<>();
+        }
+        
+        List<RollupRow> rows = new ArrayList<>(snapshot.size());
+        snapshot.forEach((key, counters) -> rows.add(new RollupRow(
+            key.granularity(), key.bucketStart(), key.action(), key.status(), key.userId(),
+            counters.count, counters.totalTimeMs, counters.maxTimeMs, counters.histogram
+        )));
+        
+        try {
+            auditLogRollupRepository.upsertAll(rows);
+        } catch (Exception e) {
+            log.warn("Failed to flush {} audit rollup buckets, will retry: {}", rows.size(), e.getMessage());
+            synchronized (this) {
+                snapshot.forEach((key, counters) -> pending.merge(key, counters, Counters::merge));
+            }
+        }
+    }
+    
+    @Scheduled(cron = "${app.audit.rollup.purge-cron:0 5 * * * ?}")
+    public void purgeMinuteBuckets() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(minuteRetentionDays);
+            int deleted;
+            do {
+                deleted = auditLogRollupRepository.deleteBefore(RollupGranularity.MINUTE, before, PURGE_BATCH_SIZE);
+            } while (deleted == PURGE_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("Failed to purge minute audit rollups", e);
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+    
+    private record BucketKey(
+        RollupGranularity granularity,
+        LocalDateTime bucketStart,
+        String action,
+        String status,
+        long userId
+    ) {
+    }
+    
+    private static final class Counters {
+        
+        private long count;
+        private long totalTimeMs;
+        private int maxTimeMs;
+        private final long[] histogram = new long[AuditLogRollupRepository.HISTOGRAM_BOUNDS.length + 1];
+        
+        private void add(int executionTimeMs) {
+            count++;
+            totalTimeMs += executionTimeMs;
+            maxTimeMs = Math.max(maxTimeMs, executionTimeMs);
+            int bucket = 0;
+            while (bucket < AuditLogRollupRepository.HISTOGRAM_BOUNDS.length
+                    && executionTimeMs > AuditLogRollupRepository.HISTOGRAM_BOUNDS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+        }
+        
+        private Counters merge(Counters other) {
+            count += other.count;
+            totalTimeMs += other.totalTimeMs;
+            maxTimeMs = Math.max(maxTimeMs, other.maxTimeMs);
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import com.example.systemserviceofficial.system.util.AuditLogCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Spool append-only trên đĩa cho audit log khi DB chậm hoặc không sẵn sàng.
+ * <p>
+ * Dữ liệu nằm trong các segment kích thước cố định được map vào bộ nhớ
+ * ({@code audit-<seq>.seg}); mỗi bản ghi là [length][crc32][payload {@link AuditLogCodec}],
+ * length = 0 đánh dấu hết dữ liệu. Vị trí đã ghi thành công vào DB được lưu trong file
+ * {@code ack}; các segment nằm hoàn toàn trước vị trí đó bị xóa (compaction).
+ * Ghi vào page cache nên chịu được process crash; segment được force ra đĩa khi đóng/chuyển.
+ */
+@Slf4j
+@Component
+public class AuditSpool {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ACK_FILE = "ack";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final MeterRegistry meterRegistry;
+
+    private final TreeSet<Long> segments = new TreeSet<>();
+
+    private long writeSeq;
+    private MappedByteBuffer writeBuffer;
+
+    private long readSeq;
+    private int readOffset;
+    private long readBufferSeq = -1;
+    private ByteBuffer readBuffer;
+
+    private Counter appendedCounter;
+    private Counter replayedCounter;
+
+    public AuditSpool(
+            @Value("${app.audit.spool.dir:logs/audit-spool}") String directory,
+            @Value("${app.audit.spool.segment-size-mb:16}") int segmentSizeMb,
+            MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                segments.add(seqOf(file));
+            }
+        }
+
+        readSeq = segments.isEmpty() ? 0 : segments.first();
+        readOffset = 0;
+        Path ackFile = directory.resolve(ACK_FILE);
+        if (Files.exists(ackFile)) {
+            String[] ack = Files.readString(ackFile, StandardCharsets.US_ASCII).trim().split(" ");
+            long ackSeq = Long.parseLong(ack[0]);
+            if (ackSeq >= readSeq) {
+                readSeq = ackSeq;
+                readOffset = Integer.parseInt(ack[1]);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            openWriteSegment(readSeq);
+        } else {
+            writeSeq = segments.last();
+            writeBuffer = map(writeSeq);
+            writeBuffer.position(recoverEndOfData(writeSeq, writeBuffer));
+            if (readSeq == writeSeq && readOffset > writeBuffer.position()) {
+                readOffset = writeBuffer.position();
+            }
+        }
+
+        appendedCounter = Counter.builder("audit.spool.appended")
+            .register(meterRegistry);
+        replayedCounter = Counter.builder("audit.spool.replayed")
+            .register(meterRegistry);
+        Gauge.builder("audit.spool.segments", this, spool -> spool.segmentCount())
+            .register(meterRegistry);
+
+        if (hasPending()) {
+            log.warn("Audit spool has pending records: segments={}, from={}:{}", segments.size(), readSeq, readOffset);
+        }
+    }
+
+    public synchronized void append(List<AuditLog> logs) {
+        for (AuditLog auditLog : logs) {
+            byte[] payload = AuditLogCodec.encode(auditLog);
+            int required = HEADER_BYTES + payload.length;
+            if (required + Integer.BYTES > segmentSize) {
+                throw new IllegalArgumentException("Audit record larger than spool segment: " + payload.length);
+            }
+            if (writeBuffer.remaining() < required + Integer.BYTES) {
+                rollSegment();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            writeBuffer.putInt(payload.length);
+            writeBuffer.putInt((int) crc.getValue());
+            writeBuffer.put(payload);
+            appendedCounter.increment();
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return readSeq < writeSeq || readOffset < writeBuffer.position();
+    }
+
+    /**
+     * Đọc tối đa {@code maxRecords} bản ghi kế tiếp theo đúng thứ tự ghi, không đẩy con trỏ;
+     * gọi {@link #acknowledge(Batch)} sau khi đã ghi lô vào DB.
+     */
+    public synchronized Batch readBatch(int maxRecords) {
+        List<AuditLog> records = new ArrayList<>(maxRecords);
+        long seq = readSeq;
+        int offset = readOffset;
+
+        while (records.size() < maxRecords) {
+            ByteBuffer buffer = readView(seq);
+            int limit = seq == writeSeq ? writeBuffer.position() : buffer.capacity();
+            if (offset + HEADER_BYTES > limit || buffer.getInt(offset) <= 0) {
+                Long next = segments.higher(seq);
+                if (seq == writeSeq || next == null) {
+                    break;
+                }
+                seq = next;
+                offset = 0;
+                continue;
+            }
+            int length = buffer.getInt(offset);
+            if (offset + HEADER_BYTES + length > limit) {
+                log.error("Corrupted audit spool record length at {}:{}, skipping rest of segment", seq, offset);
+                offset = limit;
+                continue;
+            }
+            byte[] payload = payloadOf(buffer, offset, length);
+            if (payload == null) {
+                log.error("Corrupted audit spool record at {}:{}, skipping record", seq, offset);
+            } else {
+                records.add(AuditLogCodec.decode(payload));
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return new Batch(records, seq, offset);
+    }
+
+    public synchronized void acknowledge(Batch batch) {
+        readSeq = batch.endSeq();
+        readOffset = batch.endOffset();
+        replayedCounter.increment(batch.records().size());
+        try {
+            Path tmp = directory.resolve(ACK_FILE + ".tmp");
+            Files.writeString(tmp, readSeq + " " + readOffset, StandardCharsets.US_ASCII);
+            Files.move(tmp, directory.resolve(ACK_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compact() throws IOException {
+        while (!segments.isEmpty() && segments.first() < readSeq) {
+            long seq = segments.pollFirst();
+            if (seq == readBufferSeq) {
+                readBuffer = null;
+                readBufferSeq = -1;
+            }
+            Files.deleteIfExists(segmentPath(seq));
+            log.debug("Audit spool segment compacted: {}", seq);
+        }
+    }
+
+    private void rollSegment() {
+        writeBuffer.force();
+        openWriteSegment(writeSeq + 1);
+    }
+
+    private void openWriteSegment(long seq) {
+        try {
+            writeSeq = seq;
+            writeBuffer = map(seq);
+            segments.add(seq);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer readView(long seq) {
+        if (seq == writeSeq) {
+            return writeBuffer.duplicate();
+        }
+        if (seq != readBufferSeq) {
+            try {
+                readBuffer = map(seq);
+                readBufferSeq = seq;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return readBuffer.duplicate();
+    }
+
+    private MappedByteBuffer map(long seq) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Vùng mở rộng của file mới được đọc ra 0, tức là "hết dữ liệu"
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /**
+     * Tìm cuối dữ liệu hợp lệ của segment đang ghi. Bản ghi bị cắt ngang khi crash
+     * (length đã ghi nhưng payload chưa đủ, CRC sai) cùng mọi thứ sau nó bị xóa về 0,
+     * để bản ghi mới được nối ngay sau bản ghi hợp lệ cuối cùng.
+     */
+    private int recoverEndOfData(long seq, MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                return offset;
+            }
+            if (length < 0 || offset + HEADER_BYTES + length > buffer.capacity()
+                    || payloadOf(buffer, offset, length) == null) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        if (offset + HEADER_BYTES <= buffer.capacity()) {
+            log.warn("Truncating torn audit spool tail at {}:{}", seq, offset);
+            byte[] zeros = new byte[Math.min(64 * 1024, buffer.capacity() - offset)];
+            for (int position = offset; position < buffer.capacity(); position += zeros.length) {
+                buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+            }
+            buffer.force();
+        }
+        return offset;
+    }
+
+    /**
+     * @return payload của bản ghi tại {@code offset}, hoặc null nếu CRC không khớp
+     */
+    private static byte[] payloadOf(ByteBuffer buffer, int offset, int length) {
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES) ? payload : null;
+    }
+
+    private synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    private static long seqOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+
+    /**
+     * Lô đọc từ spool cùng vị trí kết thúc để acknowledge.
+     */
+    public record Batch(List<AuditLog> records, long endSeq, int endOffset) {
+
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+}
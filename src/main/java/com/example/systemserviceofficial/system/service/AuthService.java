@@ -15,7 +15,6 @@ import com.example.systemserviceofficial.system.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,7 +24,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -34,11 +32,14 @@ public class AuthService {
     
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final TokenBlacklistService tokenBlacklistService;
     private final RefreshTokenService refreshTokenService;
     private final RoleRepository roleRepository;
     private final SystemEmailService systemEmailService;
+    private final UserAuthorityService userAuthorityService;
+    private final LoginAttemptStore loginAttemptStore;
+    private final LoginMetadataBuffer loginMetadataBuffer;
 
     @Value("${app.security.max-failed-login-attempts:5}")
     private int maxFailedAttempts;
@@ -46,11 +47,28 @@ public class AuthService {
     @Value("${app.security.account-lock-duration-minutes:30}")
     private int lockDurationMinutes;
     
-    @Transactional
+    @Value("${app.security.login-attempts.max-failed-per-ip:50}")
+    private int maxFailedPerIp;
+    
+    /**
+     * Không chạy trong một transaction chung: phần đọc user và BCrypt không giữ connection,
+     * các lệnh ghi (khóa tài khoản, refresh token, outbox) tự mở transaction ngắn của riêng chúng.
+     */
     public LoginResponse login(LoginRequest request, String ipAddress, String userAgent) {
+        // Reject IPs with too many recent failures before touching the database
+        if (ipAddress != null && loginAttemptStore.failures(ipKey(ipAddress)) >= maxFailedPerIp) {
+            throw new BusinessException(
+                "TOO_MANY_LOGIN_ATTEMPTS",
+                "Quá nhiều lần đăng nhập sai. Vui lòng thử lại sau."
+            );
+        }
+        
         // Find user
-        Optional<User> userOptional = userRepository.findByUsernameWithRoles(request.getUsername());
+        Optional<User> userOptional = userRepository.findByUsername(request.getUsername());
         if (userOptional.isEmpty()) {
+            if (ipAddress != null) {
+                loginAttemptStore.recordFailure(ipKey(ipAddress));
+            }
             throw new BusinessException(
                     "INVALID_CREDENTIALS",
                     "Tên đăng nhập hoặc mật khẩu không đúng"
@@ -75,26 +93,36 @@ public class AuthService {
         }
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            handleFailedLogin(user);
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            handleFailedLogin(user, ipAddress);
             throw new BusinessException(
                 "INVALID_CREDENTIALS",
                 "Tên đăng nhập hoặc mật khẩu không đúng"
             );
         }
         
-        // Reset failed attempts
-        user.setFailedLoginAttempts(0);
-        user.setLockedUntil(null);
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setLastLoginIp(ipAddress);
-        userRepository.save(user);
+        List<String> roleCodes = userAuthorityService.getAuthorities(user.getId()).roleCodes();
         
-        // Generate tokens
-        List<String> roleCodes = user.getRoles().stream()
-            .map(Role::getCode)
-            .collect(Collectors.toList());
+        // Upgrade hash to the user's current hashing profile
+        if (passwordHashingService.needsRehash(user.getPassword(), roleCodes)) {
+            userRepository.updatePassword(
+                user.getId(),
+                passwordHashingService.encode(request.getPassword(), roleCodes),
+                LocalDateTime.now()
+            );
+            log.info("Password hash upgraded for user: {}", user.getUsername());
+        }
         
+        // Reset failed attempts; only touch the row when an expired lock is still recorded
+        loginAttemptStore.reset(userKey(user.getUsername()));
+        if (user.getLockedUntil() != null || !Integer.valueOf(0).equals(user.getFailedLoginAttempts())) {
+            userRepository.clearLoginFailures(user.getId());
+        }
+        
+        // Last login time/IP are written in batches
+        loginMetadataBuffer.record(user, LocalDateTime.now(), ipAddress);
+        
+        // Generate tokens
         String accessToken = jwtTokenProvider.generateToken(
             user.getUsername(),
             roleCodes
@@ -111,7 +139,7 @@ public class AuthService {
             accessToken
         );
         
-        // Send login notification email (async)
+        // Send login notification email (via outbox)
         systemEmailService.sendLoginNotificationEmail(
             user.getEmail(),
             user.getFullName(),
@@ -145,7 +173,11 @@ public class AuthService {
         log.info("User logged out successfully");
     }
     
-    @Transactional
+    /**
+     * Không rollback khi ném BusinessException: phát hiện dùng lại token sẽ thu hồi
+     * cả family và việc đó phải được commit dù request thất bại.
+     */
+    @Transactional(noRollbackFor = BusinessException.class)
     public LoginResponse refreshToken(String refreshToken) {
         // Validate refresh token
         if (!jwtTokenProvider.validateToken(refreshToken)) {
@@ -155,12 +187,9 @@ public class AuthService {
             );
         }
         
-        // Check if revoked
+        // Check if revoked (a reused revoked token revokes its whole family)
         if (!refreshTokenService.isValid(refreshToken)) {
-            throw new BusinessException(
-                "REFRESH_TOKEN_REVOKED",
-                "Refresh token đã bị thu hồi"
-            );
+            refreshTokenService.rejectInactive(refreshToken);
         }
         
         // Parse token
@@ -168,16 +197,14 @@ public class AuthService {
         String username = claims.getUsername();
         
         // Get user
-        User user = userRepository.findByUsernameWithRoles(username)
+        User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new BusinessException(
                 "USER_NOT_FOUND",
                 "Người dùng không tồn tại"
             ));
         
         // Generate new tokens
-        List<String> roleCodes = user.getRoles().stream()
-            .map(role -> role.getCode())
-            .collect(Collectors.toList());
+        List<String> roleCodes = userAuthorityService.getAuthorities(user.getId()).roleCodes();
         
         String newAccessToken = jwtTokenProvider.generateToken(
             user.getUsername(),
@@ -188,10 +215,10 @@ public class AuthService {
             user.getUsername()
         );
         
-        // Save new refresh token
-        refreshTokenService.saveRefreshToken(
+        // Rotate: revoke the presented token and issue the new one in the same family
+        refreshTokenService.rotate(
+            refreshToken,
             newRefreshToken,
-            user.getId(),
             newAccessToken
         );
         
@@ -231,7 +258,7 @@ public class AuthService {
         // Create new user
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setFullName(request.getFullName());
         user.setPhone(request.getPhone());
@@ -243,7 +270,7 @@ public class AuthService {
         
         User savedUser = userRepository.save(user);
         
-        // Send welcome email (async)
+        // Send welcome email (via outbox)
         systemEmailService.sendWelcomeEmail(
             savedUser.getEmail(),
             savedUser.getFullName(),
@@ -268,11 +295,14 @@ public class AuthService {
         String resetToken = UUID.randomUUID().toString();
         
         // Save reset token (you might want to create a PasswordResetToken entity)
-        user.setResetToken(resetToken);
-        user.setResetTokenExpiry(LocalDateTime.now().plusMinutes(30)); // 30 minutes
-        userRepository.save(user);
+        userRepository.updateResetToken(
+            user.getId(),
+            resetToken,
+            LocalDateTime.now().plusMinutes(30), // 30 minutes
+            LocalDateTime.now()
+        );
 
-        // Send password reset email (async)
+        // Send password reset email (via outbox)
         systemEmailService.sendPasswordResetEmail(
             user.getEmail(),
             user.getFullName(),
@@ -302,15 +332,23 @@ public class AuthService {
             );
         }
 
-        // Update password
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiry(null);
-        user.setFailedLoginAttempts(0); // Reset failed attempts
-        user.setLockedUntil(null); // Unlock account if locked
-        userRepository.save(user);
+        // Update password, clear the reset token, reset failed attempts and unlock the account.
+        // Guarded by the token so a token used concurrently only succeeds once.
+        int updated = userRepository.resetPassword(
+            user.getId(),
+            token,
+            passwordHashingService.encode(newPassword, roleCodesOf(user)),
+            LocalDateTime.now()
+        );
+        if (updated == 0) {
+            throw new BusinessException(
+                "INVALID_RESET_TOKEN",
+                "Token reset password không hợp lệ"
+            );
+        }
+        loginAttemptStore.reset(userKey(user.getUsername()));
 
-        // Send password changed notification email (async)
+        // Send password changed notification email (via outbox)
         systemEmailService.sendPasswordChangedEmail(
             user.getEmail(),
             user.getFullName()
@@ -331,7 +369,7 @@ public class AuthService {
             ));
 
         // Verify old password
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, user.getPassword())) {
             throw new BusinessException(
                 "INVALID_OLD_PASSWORD",
                 "Mật khẩu cũ không đúng"
@@ -339,10 +377,13 @@ public class AuthService {
         }
 
         // Update password
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        userRepository.updatePassword(
+            user.getId(),
+            passwordHashingService.encode(newPassword, roleCodesOf(user)),
+            LocalDateTime.now()
+        );
 
-        // Send password changed notification email (async)
+        // Send password changed notification email (via outbox)
         systemEmailService.sendPasswordChangedEmail(
             user.getEmail(),
             user.getFullName()
@@ -351,6 +392,10 @@ public class AuthService {
         log.info("Password changed successfully for user: {}", username);
     }
 
+    private List<String> roleCodesOf(User user) {
+        return userAuthorityService.getAuthorities(user.getId()).roleCodes();
+    }
+
     private void setPermissionToUser(User user) {
         Optional<Role> roleOptional = roleRepository.findByCode("ROLE_USER");
         if (roleOptional.isPresent()) {
@@ -363,16 +408,32 @@ public class AuthService {
         }
     }
 
-    private void handleFailedLogin(User user) {
-        int attempts = user.getFailedLoginAttempts() + 1;
-        user.setFailedLoginAttempts(attempts);
+    /**
+     * Đếm lần sai trong bộ nhớ; chỉ ghi DB khi vượt ngưỡng và tài khoản chuyển sang bị khóa.
+     */
+    private void handleFailedLogin(User user, String ipAddress) {
+        if (ipAddress != null) {
+            loginAttemptStore.recordFailure(ipKey(ipAddress));
+        }
+        int attempts = loginAttemptStore.recordFailure(userKey(user.getUsername()));
         
         if (attempts >= maxFailedAttempts) {
-            user.setLockedUntil(LocalDateTime.now().plusMinutes(lockDurationMinutes));
+            userRepository.lockAccount(
+                user.getId(),
+                LocalDateTime.now().plusMinutes(lockDurationMinutes),
+                attempts
+            );
+            loginAttemptStore.reset(userKey(user.getUsername()));
             log.warn("Account locked due to too many failed attempts: {}", 
                 user.getUsername());
         }
-        
-        userRepository.save(user);
+    }
+    
+    private static String userKey(String username) {
+        return "user:" + username;
+    }
+    
+    private static String ipKey(String ipAddress) {
+        return "ip:" + ipAddress;
     }
 }
@@ -0,0 +1,98 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bộ đếm trong bộ nhớ: mỗi key là một vòng {@code buckets} ô, mỗi ô phủ
+ * window/buckets giây và được cập nhật bằng CAS, không khóa. Ô đóng gói
+ * (số thứ tự bucket &lt;&lt; 24 | count) nên ô cũ tự reset khi vòng quay lại.
+ * Số key bị giới hạn để tấn công rải IP không làm phình bộ nhớ.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.security.login-attempts", name = "store", havingValue = "local", matchIfMissing = true)
+public class LocalLoginAttemptStore implements LoginAttemptStore {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-attempts.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${app.security.login-attempts.buckets:15}")
+    private int buckets;
+
+    @Value("${app.security.login-attempts.maximum-keys:100000}")
+    private long maximumKeys;
+
+    private long bucketMillis;
+    private Cache<String, AtomicLongArray> counters;
+
+    @PostConstruct
+    void init() {
+        bucketMillis = Math.max(1, windowSeconds * 1000 / buckets);
+        counters = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+            .build();
+        Gauge.builder("auth.login.attempts.keys", counters, Cache::estimatedSize)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public int recordFailure(String key) {
+        AtomicLongArray slots = counters.get(key, k -> new AtomicLongArray(buckets));
+        long bucket = currentBucket();
+        int index = (int) (bucket % buckets);
+        while (true) {
+            long current = slots.get(index);
+            long updated = (current >>> COUNT_BITS) == bucket
+                ? Math.min(current + 1, (bucket << COUNT_BITS) | COUNT_MASK)
+                : (bucket << COUNT_BITS) | 1;
+            if (slots.compareAndSet(index, current, updated)) {
+                break;
+            }
+        }
+        return sum(slots, bucket);
+    }
+
+    @Override
+    public int failures(String key) {
+        AtomicLongArray slots = counters.getIfPresent(key);
+        return slots == null ? 0 : sum(slots, currentBucket());
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.invalidate(key);
+    }
+
+    private int sum(AtomicLongArray slots, long bucket) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long value = slots.get(i);
+            // Chỉ tính các ô thuộc cửa sổ hiện tại
+            if (bucket - (value >>> COUNT_BITS) < buckets) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+}
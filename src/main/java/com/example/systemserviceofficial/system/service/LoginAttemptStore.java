@@ -0,0 +1,25 @@
+package com.example.systemserviceofficial.system.service;
+
+/**
+ * Bộ đếm đăng nhập sai theo cửa sổ trượt, theo key (username hoặc IP).
+ * <p>
+ * Implementation được chọn qua {@code app.security.login-attempts.store}:
+ * {@code local} (trong bộ nhớ của từng node). Backend dùng chung giữa các node
+ * (ví dụ Redis) chỉ cần implement interface này.
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * Ghi nhận một lần sai.
+     *
+     * @return số lần sai của key trong cửa sổ hiện tại, kể cả lần này
+     */
+    int recordFailure(String key);
+
+    /**
+     * Số lần sai của key trong cửa sổ hiện tại.
+     */
+    int failures(String key);
+
+    void reset(String key);
+}
@@ -0,0 +1,108 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.entity.User;
+import com.example.systemserviceofficial.system.repository.UserLoginMetadataRepository;
+import com.example.systemserviceofficial.system.repository.UserLoginMetadataRepository.LastLogin;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gom các cập nhật last_login_at / last_login_ip trong bộ nhớ và ghi định kỳ theo lô,
+ * để đăng nhập thành công không phải ghi lại cả dòng sys_user. Nhiều lần đăng nhập
+ * của cùng user giữa hai lần flush chỉ thành một câu UPDATE; lần đăng nhập cùng IP
+ * trong khoảng {@code granularity-seconds} so với giá trị đã lưu thì bỏ qua hẳn.
+ * Phần còn trong buffer được flush khi tắt ứng dụng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginMetadataBuffer {
+
+    private final UserLoginMetadataRepository userLoginMetadataRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-metadata.granularity-seconds:60}")
+    private long granularitySeconds;
+
+    @Value("${app.security.login-metadata.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, LastLogin> pending = new ConcurrentHashMap<>();
+
+    private Counter skipped;
+    private Counter written;
+
+    @PostConstruct
+    void initMetrics() {
+        skipped = Counter.builder("login.metadata.skipped")
+            .description("Logins within the granularity of the stored value")
+            .register(meterRegistry);
+        written = Counter.builder("login.metadata.written")
+            .register(meterRegistry);
+        Gauge.builder("login.metadata.pending", pending, Map::size)
+            .register(meterRegistry);
+    }
+
+    public void record(User user, LocalDateTime loginAt, String ipAddress) {
+        // Còn bản ghi chờ flush thì phải ghi đè nó, kể cả khi khớp giá trị đã lưu
+        if (!pending.containsKey(user.getId())
+            && Objects.equals(user.getLastLoginIp(), ipAddress)
+            && user.getLastLoginAt() != null
+            && Duration.between(user.getLastLoginAt(), loginAt).getSeconds() < granularitySeconds) {
+            skipped.increment();
+            return;
+        }
+        pending.merge(user.getId(), new LastLogin(user.getId(), loginAt, ipAddress), LoginMetadataBuffer::latest);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login-metadata.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<LastLogin> drained = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LastLogin login = pending.remove(userId);
+            if (login != null) {
+                drained.add(login);
+            }
+        }
+
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<LastLogin> chunk = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                userLoginMetadataRepository.updateAll(chunk);
+                written.increment(chunk.size());
+            } catch (Exception e) {
+                // Trả lại buffer để lần flush sau thử lại; lần đăng nhập mới hơn vẫn được ưu tiên
+                chunk.forEach(login -> pending.merge(login.userId(), login, LoginMetadataBuffer::latest));
+                log.error("Failed to flush {} login metadata updates", chunk.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private static LastLogin latest(LastLogin a, LastLogin b) {
+        return b.loginAt().isAfter(a.loginAt()) ? b : a;
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.systemserviceofficial.system.service;
 
+import com.example.commonserviceofficial.exception.BusinessException;
 import com.example.commonserviceofficial.security.JwtTokenProvider;
 import com.example.systemserviceofficial.system.entity.RefreshToken;
 import com.example.systemserviceofficial.system.repository.RefreshTokenRepository;
+import com.example.systemserviceofficial.system.util.TokenFingerprints;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.UUID;
 
+/**
+ * Refresh token xoay vòng: mỗi lần refresh thu hồi token cũ (UPDATE có điều kiện) và
+ * phát hành token mới trong cùng family (INSERT ... SELECT). Token đã bị thu hồi mà
+ * được dùng lại nghĩa là đã bị lộ, nên cả family bị thu hồi.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -23,28 +32,72 @@ public class RefreshTokenService {
     @Value("${security.jwt.refresh-expiration-seconds:604800}")
     private long refreshExpirationSeconds;
     
+    /**
+     * Lưu refresh token của một lần đăng nhập mới (bắt đầu family mới).
+     */
     @Transactional
     public void saveRefreshToken(String token, Long userId, String accessToken) {
-        Date expirationDate = jwtTokenProvider.getExpirationDateFromToken(token);
-        LocalDateTime expiresAt = LocalDateTime.ofInstant(
-            expirationDate.toInstant(),
-            java.time.ZoneId.systemDefault()
-        );
-        
         RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(token);
+        refreshToken.setTokenHash(TokenFingerprints.of(token));
         refreshToken.setUserId(userId);
-        refreshToken.setAccessToken(accessToken);
-        refreshToken.setExpiresAt(expiresAt);
+        refreshToken.setAccessTokenHash(TokenFingerprints.of(accessToken));
+        refreshToken.setFamilyId(newFamilyId());
+        refreshToken.setExpiresAt(expiresAtOf(token));
         refreshToken.setRevoked(false);
         
         refreshTokenRepository.save(refreshToken);
         log.debug("Refresh token saved for user: {}", userId);
     }
     
+    /**
+     * Thu hồi token cũ và phát hành token mới trong cùng family. Nếu token cũ không còn
+     * hiệu lực (kể cả khi request khác vừa rotate nó) thì xử lý như dùng lại token.
+     * <p>
+     * Không rollback khi ném BusinessException để việc thu hồi family vẫn được commit.
+     */
+    @Transactional(noRollbackFor = BusinessException.class)
+    public void rotate(String oldToken, String newToken, String newAccessToken) {
+        byte[] oldTokenHash = TokenFingerprints.of(oldToken);
+        LocalDateTime now = LocalDateTime.now();
+        
+        if (refreshTokenRepository.revokeIfActive(oldTokenHash, now) == 0) {
+            throw rejected(oldTokenHash, now);
+        }
+        
+        refreshTokenRepository.insertRotated(
+            oldTokenHash,
+            TokenFingerprints.of(newToken),
+            TokenFingerprints.of(newAccessToken),
+            expiresAtOf(newToken),
+            now
+        );
+    }
+    
+    /**
+     * Từ chối token không còn hiệu lực; token đã bị thu hồi thì thu hồi cả family.
+     */
+    @Transactional(noRollbackFor = BusinessException.class)
+    public void rejectInactive(String token) {
+        throw rejected(TokenFingerprints.of(token), LocalDateTime.now());
+    }
+    
+    private BusinessException rejected(byte[] tokenHash, LocalDateTime now) {
+        refreshTokenRepository.findByTokenHash(tokenHash)
+            .filter(RefreshToken::getRevoked)
+            .ifPresent(token -> {
+                int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+                log.warn("Revoked refresh token reused, token family revoked: userId={}, revoked={}",
+                    token.getUserId(), revoked);
+            });
+        return new BusinessException(
+            "REFRESH_TOKEN_REVOKED",
+            "Refresh token đã bị thu hồi"
+        );
+    }
+    
     @Transactional
     public void revokeByAccessToken(String accessToken) {
-        refreshTokenRepository.findByAccessToken(accessToken).ifPresent(token -> {
+        refreshTokenRepository.findByAccessTokenHash(TokenFingerprints.of(accessToken)).ifPresent(token -> {
             token.setRevoked(true);
             token.setRevokedAt(LocalDateTime.now());
             refreshTokenRepository.save(token);
@@ -54,24 +107,38 @@ public class RefreshTokenService {
     
     @Transactional
     public void revokeAllByUserId(Long userId) {
-        refreshTokenRepository.findByUserId(userId).forEach(token -> {
-            token.setRevoked(true);
-            token.setRevokedAt(LocalDateTime.now());
-            refreshTokenRepository.save(token);
-        });
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
         log.info("All refresh tokens revoked for user: {}", userId);
     }
     
     public boolean isValid(String token) {
-        return refreshTokenRepository.findByToken(token)
-            .map(rt -> !rt.getRevoked() && rt.getExpiresAt().isAfter(LocalDateTime.now()))
-            .orElse(false);
+        return refreshTokenRepository.existsByTokenHashAndRevokedFalseAndExpiresAtAfter(
+            TokenFingerprints.of(token),
+            LocalDateTime.now()
+        );
     }
     
     @Transactional
     public void cleanupExpiredTokens() {
-        LocalDateTime now = LocalDateTime.now();
-        refreshTokenRepository.deleteByExpiresAtBefore(now);
-        log.info("Cleaned up expired refresh tokens");
+        // Token đã thu hồi chỉ bị xóa khi hết hạn: xóa sớm hơn thì token bị đánh cắp
+        // dùng lại sau đó không còn khớp bản ghi nào và family không bị thu hồi
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        log.info("Cleaned up {} expired refresh tokens", deleted);
+    }
+    
+    private LocalDateTime expiresAtOf(String token) {
+        Date expirationDate = jwtTokenProvider.getExpirationDateFromToken(token);
+        return LocalDateTime.ofInstant(
+            expirationDate.toInstant(),
+            java.time.ZoneId.systemDefault()
+        );
+    }
+    
+    private static byte[] newFamilyId() {
+        UUID uuid = UUID.randomUUID();
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
     }
 }
@@ -0,0 +1,152 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.entity.TokenBlacklist;
+import com.example.systemserviceofficial.system.repository.TokenBlacklistRepository;
+import com.example.systemserviceofficial.system.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tập các token đang bị thu hồi trên node hiện tại: Bloom filter chắn trước
+ * cho trường hợp phổ biến "chưa bị thu hồi", phía sau là tập chính xác
+ * fingerprint -> thời điểm hết hạn. Được nạp từ sys_token_blacklist lúc khởi động
+ * và cập nhật qua {@link com.example.systemserviceofficial.system.event.TokenRevocationBus}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevokedTokenRegistry {
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.token.blacklist-filter.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${app.token.blacklist-filter.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    /**
+     * null khi chưa nạp xong lần đầu.
+     */
+    private volatile Snapshot current;
+
+    /**
+     * Snapshot đang được build; token thu hồi trong lúc rebuild được ghi vào cả hai.
+     */
+    private volatile Snapshot pending;
+
+    private Timer rebuildTimer;
+    private Counter filterChecks;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void initMetrics() {
+        rebuildTimer = Timer.builder("token.blacklist.filter.rebuild")
+            .register(meterRegistry);
+        filterChecks = Counter.builder("token.blacklist.filter.checks")
+            .description("Lookups answered positive by the filter")
+            .register(meterRegistry);
+        falsePositives = Counter.builder("token.blacklist.filter.false.positives")
+            .description("Filter positives that were not in the revoked set")
+            .register(meterRegistry);
+        Gauge.builder("token.blacklist.filter.expected.fpp", this,
+                registry -> registry.current != null
+                    ? registry.current.filter.expectedFalsePositiveRate() : Double.NaN)
+            .register(meterRegistry);
+        Gauge.builder("token.blacklist.revoked.size", this,
+                registry -> registry.current != null ? registry.current.entries.size() : 0)
+            .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Thời điểm hết hạn (epoch millis) nếu token đang bị thu hồi, ngược lại null.
+     */
+    public Long revokedUntil(byte[] tokenHash) {
+        Snapshot snapshot = current;
+        if (snapshot == null || !snapshot.filter.mightContain(tokenHash)) {
+            return null;
+        }
+        filterChecks.increment();
+        Long expiresAt = snapshot.entries.get(ByteBuffer.wrap(tokenHash));
+        if (expiresAt == null) {
+            falsePositives.increment();
+            return null;
+        }
+        return expiresAt > System.currentTimeMillis() ? expiresAt : null;
+    }
+
+    public void add(byte[] tokenHash, LocalDateTime expiresAt) {
+        long expiresAtMillis = toEpochMillis(expiresAt);
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            snapshot.add(tokenHash, expiresAtMillis);
+        }
+        Snapshot building = pending;
+        if (building != null) {
+            building.add(tokenHash, expiresAtMillis);
+        }
+    }
+
+    /**
+     * Build lại toàn bộ từ các bản ghi còn hiệu lực (lúc khởi động và sau cleanup,
+     * để bỏ các token đã hết hạn khỏi Bloom filter).
+     */
+    public synchronized void rebuild() {
+        try {
+            rebuildTimer.record(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                Snapshot rebuilt = new Snapshot(BloomFilter.create(
+                    Math.max(expectedInsertions, tokenBlacklistRepository.countByExpiresAtAfter(now) * 2),
+                    falsePositiveRate
+                ));
+                pending = rebuilt;
+                List<TokenBlacklist> active = tokenBlacklistRepository.findByExpiresAtAfter(now);
+                active.forEach(row -> rebuilt.add(row.getTokenHash(), toEpochMillis(row.getExpiresAt())));
+                current = rebuilt;
+                pending = null;
+                log.debug("Revoked token registry rebuilt: entries={}, bits={}",
+                    active.size(), rebuilt.filter.bitSize());
+            });
+        } catch (Exception e) {
+            log.error("Failed to rebuild revoked token registry", e);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter filter;
+        private final ConcurrentHashMap<ByteBuffer, Long> entries = new ConcurrentHashMap<>();
+
+        private Snapshot(BloomFilter filter) {
+            this.filter = filter;
+        }
+
+        private void add(byte[] tokenHash, long expiresAtMillis) {
+            // Thêm vào tập chính xác trước để filter không bao giờ "dương tính" mà thiếu entry
+            entries.put(ByteBuffer.wrap(tokenHash), expiresAtMillis);
+            filter.put(tokenHash);
+        }
+    }
+}
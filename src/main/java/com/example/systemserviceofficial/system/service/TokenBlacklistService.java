@@ -2,13 +2,21 @@ package com.example.systemserviceofficial.system.service;
 
 import com.example.commonserviceofficial.security.JwtTokenProvider;
 import com.example.systemserviceofficial.system.entity.TokenBlacklist;
+import com.example.systemserviceofficial.system.event.TokenRevocationBus;
+import com.example.systemserviceofficial.system.event.TokenRevokedEvent;
 import com.example.systemserviceofficial.system.repository.TokenBlacklistRepository;
+import com.example.systemserviceofficial.system.util.TokenFingerprints;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.Date;
@@ -21,13 +29,28 @@ public class TokenBlacklistService {
     private final TokenBlacklistRepository tokenBlacklistRepository;
     private final CacheManager cacheManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final TokenRevocationBus tokenRevocationBus;
     
     private static final String BLACKLIST_CACHE = "tokens";
     
+    @PostConstruct
+    void subscribeRevocations() {
+        tokenRevocationBus.subscribe(event ->
+            revokedTokenRegistry.add(event.tokenHash(), event.expiresAt()));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedTokens() {
+        revokedTokenRegistry.rebuild();
+    }
+    
     @Transactional
     public void blacklistToken(String token, String reason) {
+        byte[] fingerprint = TokenFingerprints.of(token);
+        
         // Check if already blacklisted
-        if (isBlacklisted(token)) {
+        if (isBlacklisted(fingerprint)) {
             return;
         }
         
@@ -40,32 +63,48 @@ public class TokenBlacklistService {
         
         // Save to database
         TokenBlacklist blacklist = new TokenBlacklist();
-        blacklist.setToken(token);
+        blacklist.setTokenHash(fingerprint);
         blacklist.setReason(reason);
         blacklist.setExpiresAt(expiresAt);
         tokenBlacklistRepository.save(blacklist);
         
-        // Save to cache
+        // Save to in-memory revoked set
+        revokedTokenRegistry.add(fingerprint, expiresAt);
+        
+        // Save to cache, expiring together with the token itself
         Cache cache = cacheManager.getCache(BLACKLIST_CACHE);
         if (cache != null) {
-            cache.put("blacklist:" + token, true);
+            cache.put(cacheKey(fingerprint), toEpochMillis(expiresAt));
         }
         
+        // Propagate to other nodes once committed
+        publishAfterCommit(new TokenRevokedEvent(fingerprint, expiresAt, reason));
+        
         log.info("Token blacklisted: reason={}", reason);
     }
     
     public boolean isBlacklisted(String token) {
+        return isBlacklisted(TokenFingerprints.of(token));
+    }
+    
+    private boolean isBlacklisted(byte[] fingerprint) {
         // Check cache first
         Cache cache = cacheManager.getCache(BLACKLIST_CACHE);
-        if (cache != null) {
-            Boolean cached = cache.get("blacklist:" + token, Boolean.class);
-            if (Boolean.TRUE.equals(cached)) {
-                return true;
-            }
+        if (cache != null && cache.get(cacheKey(fingerprint), Long.class) != null) {
+            return true;
         }
         
-        // Check database
-        return tokenBlacklistRepository.existsByToken(token);
+        // Answer from memory once the revoked set is loaded
+        Long revokedUntil = revokedTokenRegistry.isReady()
+            ? revokedTokenRegistry.revokedUntil(fingerprint)
+            : tokenBlacklistRepository.findByTokenHash(fingerprint)
+                .map(blacklist -> toEpochMillis(blacklist.getExpiresAt()))
+                .orElse(null);
+        
+        if (revokedUntil != null && cache != null) {
+            cache.put(cacheKey(fingerprint), revokedUntil);
+        }
+        return revokedUntil != null;
     }
     
     @Transactional
@@ -73,5 +112,27 @@ public class TokenBlacklistService {
         LocalDateTime now = LocalDateTime.now();
         tokenBlacklistRepository.deleteByExpiresAtBefore(now);
         log.info("Cleaned up expired blacklisted tokens");
+        revokedTokenRegistry.rebuild();
+    }
+    
+    private void publishAfterCommit(TokenRevokedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tokenRevocationBus.publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenRevocationBus.publish(event);
+            }
+        });
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static String cacheKey(byte[] fingerprint) {
+        return "blacklist:" + TokenFingerprints.toHex(fingerprint);
     }
 }
@@ -0,0 +1,15 @@
+package com.example.systemserviceofficial.system.service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Snapshot bất biến các role/permission của một user, được cache trong "roles".
+ */
+public record UserAuthorities(Long userId, List<String> roleCodes, Set<String> permissionCodes) {
+
+    public UserAuthorities {
+        roleCodes = List.copyOf(roleCodes);
+        permissionCodes = Set.copyOf(permissionCodes);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.config.NamedCacheLoader;
+import com.example.systemserviceofficial.system.entity.Permission;
+import com.example.systemserviceofficial.system.entity.Role;
+import com.example.systemserviceofficial.system.entity.User;
+import com.example.systemserviceofficial.system.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Nạp {@link UserAuthorities} cho cache "roles"; cũng được Caffeine dùng để refresh nền.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAuthorityLoader implements NamedCacheLoader<Long, UserAuthorities> {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public String cacheName() {
+        return UserAuthorityService.ROLES_CACHE;
+    }
+
+    @Override
+    public UserAuthorities load(Long userId) {
+        // Một truy vấn duy nhất: user + roles + permissions theo entity graph
+        User user = userRepository.findWithRolesAndPermissionsById(userId).orElse(null);
+        if (user == null) {
+            return new UserAuthorities(userId, List.of(), Set.of());
+        }
+        List<String> roleCodes = user.getRoles().stream()
+            .map(Role::getCode)
+            .collect(Collectors.toList());
+        Set<String> permissionCodes = user.getRoles().stream()
+            .flatMap(role -> role.getPermissions().stream())
+            .map(Permission::getCode)
+            .collect(Collectors.toSet());
+        return new UserAuthorities(userId, roleCodes, permissionCodes);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.systemserviceofficial.system.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tra cứu role/permission của user từ cache, tránh duyệt quan hệ LAZY User.roles
+ * mỗi lần cấp token. Cache là cục bộ theo node; node khác nhận thay đổi
+ * sau refresh-after-write của cache "roles".
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserAuthorityService {
+    
+    static final String ROLES_CACHE = "roles";
+    
+    private final CacheManager cacheManager;
+    private final UserAuthorityLoader userAuthorityLoader;
+    
+    public UserAuthorities getAuthorities(Long userId) {
+        Cache cache = cacheManager.getCache(ROLES_CACHE);
+        if (cache == null) {
+            return userAuthorityLoader.load(userId);
+        }
+        return cache.get(userId, () -> userAuthorityLoader.load(userId));
+    }
+    
+    /**
+     * Xóa snapshot của user sau khi transaction hiện tại commit (ví dụ khi gán lại role).
+     */
+    public void evict(Long userId) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(ROLES_CACHE);
+            if (cache != null) {
+                cache.evict(userId);
+            }
+            log.debug("User authorities evicted: userId={}", userId);
+        });
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
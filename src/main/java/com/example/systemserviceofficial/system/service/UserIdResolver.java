@@ -0,0 +1,45 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tra id user theo username cho audit log: JWT chỉ mang username nên id được tra DB
+ * một lần rồi giữ trong cache "users". Username không tồn tại thì không cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserIdResolver {
+    
+    static final String USERS_CACHE = "users";
+    
+    private final CacheManager cacheManager;
+    private final UserRepository userRepository;
+    
+    /**
+     * @return id đã có trong cache, hoặc null (không chạm DB, gọi được từ event-loop)
+     */
+    public Long getCached(String username) {
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        return cache != null ? cache.get(username, Long.class) : null;
+    }
+    
+    /**
+     * Blocking: tra DB khi cache chưa có.
+     */
+    public Long resolve(String username) {
+        Long cached = getCached(username);
+        if (cached != null) {
+            return cached;
+        }
+        Long userId = userRepository.findIdByUsername(username).orElse(null);
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        if (userId != null && cache != null) {
+            cache.put(username, userId);
+        }
+        return userId;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.systemserviceofficial.system.service;
 import com.example.commonserviceofficial.exception.BusinessException;
 import com.example.systemserviceofficial.system.dto.request.CreateUserRequest;
 import com.example.systemserviceofficial.system.dto.request.UpdateUserRequest;
+import com.example.systemserviceofficial.system.dto.response.RoleResponse;
 import com.example.systemserviceofficial.system.dto.response.UserResponse;
 import com.example.systemserviceofficial.system.entity.Role;
 import com.example.systemserviceofficial.system.entity.User;
@@ -11,15 +12,20 @@ import com.example.systemserviceofficial.system.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -28,23 +34,22 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserAuthorityService userAuthorityService;
     
     @Transactional(readOnly = true)
     public Page<UserResponse> findAll(Pageable pageable) {
-        return userRepository.findByDeletedAtIsNull(pageable)
-            .map(this::toResponse);
+        return withRoles(userRepository.findIdsByDeletedAtIsNull(pageable));
     }
     
     @Transactional(readOnly = true)
     public Page<UserResponse> search(String keyword, Pageable pageable) {
-        return userRepository.searchUsers(keyword, pageable)
-            .map(this::toResponse);
+        return withRoles(userRepository.searchUserIds(keyword, pageable));
     }
     
     @Transactional(readOnly = true)
     public UserResponse findById(Long id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithRolesById(id)
             .orElseThrow(() -> new BusinessException(
                 "USER_NOT_FOUND",
                 "Không tìm thấy người dùng"
@@ -72,7 +77,7 @@ public class UserService {
         // Create user
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setFullName(request.getFullName());
         user.setPhone(request.getPhone());
@@ -94,7 +99,7 @@ public class UserService {
     
     @Transactional
     public UserResponse update(Long id, UpdateUserRequest request) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithRolesById(id)
             .orElseThrow(() -> new BusinessException(
                 "USER_NOT_FOUND",
                 "Không tìm thấy người dùng"
@@ -133,6 +138,7 @@ public class UserService {
         
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        userAuthorityService.evict(id);
         log.info("User deleted: {}", user.getUsername());
     }
     
@@ -147,10 +153,28 @@ public class UserService {
         Set<Role> roles = new HashSet<>(roleRepository.findAllById(roleIds));
         user.setRoles(roles);
         userRepository.save(user);
+        userAuthorityService.evict(userId);
         
         log.info("Roles assigned to user: {}", user.getUsername());
     }
     
+    /**
+     * Phân trang trên id rồi nạp user kèm roles bằng một truy vấn IN, giữ thứ tự của trang.
+     */
+    private Page<UserResponse> withRoles(Page<Long> ids) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+        Map<Long, User> users = userRepository.findAllWithRolesByIdIn(ids.getContent()).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserResponse> content = ids.getContent().stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+    
     private UserResponse toResponse(User user) {
         return UserResponse.builder()
             .id(user.getId())
@@ -161,6 +185,16 @@ public class UserService {
             .avatarUrl(user.getAvatarUrl())
             .status(user.getStatus())
             .lastLoginAt(user.getLastLoginAt())
+            .roles(user.getRoles().stream()
+                .sorted(Comparator.comparing(Role::getCode))
+                .map(role -> RoleResponse.builder()
+                    .id(role.getId())
+                    .code(role.getCode())
+                    .name(role.getName())
+                    .description(role.getDescription())
+                    .status(role.getStatus())
+                    .build())
+                .collect(Collectors.toList()))
             .createdAt(user.getCreatedAt())
             .updatedAt(user.getUpdatedAt())
             .build();
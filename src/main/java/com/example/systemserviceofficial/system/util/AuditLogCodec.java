@@ -0,0 +1,140 @@
+package com.example.systemserviceofficial.system.util;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Mã hóa nhị phân gọn cho {@link AuditLog} khi ghi ra đĩa (spill/spool).
+ * Thứ tự field cố định theo {@link #VERSION}; đổi thứ tự thì tăng version.
+ */
+public final class AuditLogCodec {
+
+    public static final byte VERSION = 1;
+
+    private AuditLogCodec() {
+    }
+
+    public static byte[] encode(AuditLog log) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeLong(out, log.getId());
+            writeString(out, log.getTraceId());
+            writeLong(out, log.getUserId());
+            writeString(out, log.getUsername());
+            writeString(out, log.getAction());
+            writeString(out, log.getResource());
+            writeString(out, log.getMethod());
+            writeString(out, log.getRequestUrl());
+            writeString(out, log.getRequestParams());
+            writeString(out, log.getRequestBody());
+            writeInt(out, log.getResponseStatus());
+            writeString(out, log.getResponseBody());
+            writeString(out, log.getIpAddress());
+            writeString(out, log.getUserAgent());
+            writeInt(out, log.getExecutionTime());
+            writeString(out, log.getStatus());
+            writeString(out, log.getErrorMessage());
+            writeDateTime(out, log.getCreatedAt());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static AuditLog decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported audit log codec version: " + version);
+            }
+            AuditLog log = new AuditLog();
+            log.setId(readLong(in));
+            log.setTraceId(readString(in));
+            log.setUserId(readLong(in));
+            log.setUsername(readString(in));
+            log.setAction(readString(in));
+            log.setResource(readString(in));
+            log.setMethod(readString(in));
+            log.setRequestUrl(readString(in));
+            log.setRequestParams(readString(in));
+            log.setRequestBody(readString(in));
+            log.setResponseStatus(readInt(in));
+            log.setResponseBody(readString(in));
+            log.setIpAddress(readString(in));
+            log.setUserAgent(readString(in));
+            log.setExecutionTime(readInt(in));
+            log.setStatus(readString(in));
+            log.setErrorMessage(readString(in));
+            log.setCreatedAt(readDateTime(in));
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean()
+            ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+            : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.systemserviceofficial.system.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fingerprint cố định 32 byte (SHA-256) của JWT, dùng làm khóa lưu trữ và tra cứu
+ * thay cho chuỗi token đầy đủ. Khớp với UNHEX(SHA2(token, 256)) phía MySQL.
+ */
+public final class TokenFingerprints {
+
+    public static final int LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private TokenFingerprints() {
+    }
+
+    public static byte[] of(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest.digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String toHex(byte[] fingerprint) {
+        return HexFormat.of().formatHex(fingerprint);
+    }
+}
@@ -0,0 +1,55 @@
+-- =====================================================
+-- HDDT System Service - Token fingerprints
+-- Version: 2.0
+-- Tra cứu token theo SHA-256 (BINARY(32)) thay vì chuỗi JWT VARCHAR(500)
+-- =====================================================
+
+-- =====================================================
+-- 1. TOKEN BLACKLIST
+-- =====================================================
+
+ALTER TABLE sys_token_blacklist
+    ADD COLUMN token_hash BINARY(32) NULL AFTER id,
+    ADD COLUMN user_id BIGINT NULL AFTER token_hash,
+    ADD COLUMN reason VARCHAR(100) NULL AFTER user_id;
+
+-- Backfill fingerprint cho các dòng hiện có (cùng thuật toán với TokenFingerprints)
+UPDATE sys_token_blacklist
+SET token_hash = UNHEX(SHA2(token, 256))
+WHERE token_hash IS NULL;
+
+ALTER TABLE sys_token_blacklist
+    MODIFY COLUMN token_hash BINARY(32) NOT NULL,
+    MODIFY COLUMN token VARCHAR(500) NULL,
+    DROP INDEX idx_token,
+    DROP INDEX token,
+    ADD UNIQUE KEY uk_token_blacklist_hash (token_hash);
+
+-- =====================================================
+-- 2. REFRESH TOKEN
+-- =====================================================
+
+ALTER TABLE sys_refresh_token
+    ADD COLUMN token_hash BINARY(32) NULL AFTER id,
+    ADD COLUMN access_token_hash BINARY(32) NULL AFTER user_id,
+    ADD COLUMN revoked BOOLEAN NOT NULL DEFAULT FALSE AFTER expires_at,
+    ADD COLUMN revoked_at TIMESTAMP NULL AFTER revoked;
+
+UPDATE sys_refresh_token
+SET token_hash = UNHEX(SHA2(token, 256))
+WHERE token_hash IS NULL;
+
+ALTER TABLE sys_refresh_token
+    MODIFY COLUMN token_hash BINARY(32) NOT NULL,
+    MODIFY COLUMN token VARCHAR(500) NULL,
+    DROP INDEX idx_token,
+    DROP INDEX token,
+    ADD UNIQUE KEY uk_refresh_token_hash (token_hash),
+    ADD INDEX idx_refresh_access_token_hash (access_token_hash);
+
+-- Cột token (chuỗi JWT) không còn được ghi; giữ lại dạng NULL để rollback an toàn,
+-- sẽ được drop ở migration sau khi mọi node đã chạy phiên bản mới.
+
+-- =====================================================
+-- END OF MIGRATION
+-- =====================================================
@@ -0,0 +1,13 @@
+-- =====================================================
+-- HDDT System Service - Audit log keyset pagination
+-- Version: 3.0
+-- Index (created_at, id) cho phân trang theo cursor trên sys_audit_log
+-- =====================================================
+
+CREATE INDEX idx_audit_created_at_id ON sys_audit_log(created_at, id);
+CREATE INDEX idx_audit_user_created_at_id ON sys_audit_log(user_id, created_at, id);
+CREATE INDEX idx_audit_action_created_at_id ON sys_audit_log(action, created_at, id);
+
+-- Đã được bao bởi các index ghép ở trên
+DROP INDEX idx_audit_created_at ON sys_audit_log;
+DROP INDEX idx_audit_action ON sys_audit_log;
@@ -0,0 +1,34 @@
+-- =====================================================
+-- HDDT System Service - Audit log partitioning
+-- Version: 4.0
+-- Phân vùng sys_audit_log theo created_at (RANGE COLUMNS, mỗi tháng một partition).
+-- Mốc của p_history lấy theo ngày chạy migration; các partition tiếp theo được
+-- AuditPartitionService tạo lúc khởi động và tạo trước định kỳ bằng REORGANIZE p_future,
+-- partition quá hạn lưu trữ bị DROP PARTITION thay vì DELETE.
+-- =====================================================
+
+-- Bảng phân vùng không hỗ trợ foreign key
+ALTER TABLE sys_audit_log DROP FOREIGN KEY sys_audit_log_ibfk_1;
+
+-- Cột phân vùng phải nằm trong mọi unique key, kể cả primary key
+ALTER TABLE sys_audit_log
+    MODIFY created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+-- Giảm số secondary index phải cập nhật mỗi lần insert:
+-- user_id/action đã có index ghép (…, created_at, id), username không được truy vấn
+DROP INDEX idx_audit_user_id ON sys_audit_log;
+DROP INDEX idx_audit_username ON sys_audit_log;
+
+-- Dữ liệu trước tháng chạy migration nằm trong p_history; các partition từ tháng
+-- hiện tại trở đi do AuditPartitionService tạo lúc khởi động, tách ra từ p_future
+SET @audit_history_bound = DATE_FORMAT(CURRENT_DATE, '%Y-%m-01 00:00:00');
+SET @audit_partition_ddl = CONCAT(
+    'ALTER TABLE sys_audit_log PARTITION BY RANGE COLUMNS (created_at) (',
+    'PARTITION p_history VALUES LESS THAN (''', @audit_history_bound, '''), ',
+    'PARTITION p_future VALUES LESS THAN (MAXVALUE))'
+);
+PREPARE audit_partition_stmt FROM @audit_partition_ddl;
+EXECUTE audit_partition_stmt;
+DEALLOCATE PREPARE audit_partition_stmt;
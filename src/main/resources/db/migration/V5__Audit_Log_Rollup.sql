@@ -0,0 +1,28 @@
+-- =====================================================
+-- HDDT System Service - Audit log rollups
+-- Version: 5.0
+-- Bộ đếm cộng dồn theo phút/giờ, được cập nhật từ luồng ghi audit log
+-- =====================================================
+
+CREATE TABLE sys_audit_log_rollup (
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    -- 0 cho request không có user
+    user_id BIGINT NOT NULL DEFAULT 0,
+    request_count BIGINT NOT NULL DEFAULT 0,
+    total_time_ms BIGINT NOT NULL DEFAULT 0,
+    max_time_ms INT NOT NULL DEFAULT 0,
+    -- Histogram thời gian xử lý (ms)
+    le_10 BIGINT NOT NULL DEFAULT 0,
+    le_50 BIGINT NOT NULL DEFAULT 0,
+    le_100 BIGINT NOT NULL DEFAULT 0,
+    le_500 BIGINT NOT NULL DEFAULT 0,
+    le_1000 BIGINT NOT NULL DEFAULT 0,
+    le_5000 BIGINT NOT NULL DEFAULT 0,
+    le_inf BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start, action, status, user_id)
+);
+
+CREATE INDEX idx_audit_rollup_user ON sys_audit_log_rollup(granularity, user_id, bucket_start);
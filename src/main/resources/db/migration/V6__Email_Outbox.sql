@@ -0,0 +1,25 @@
+-- =====================================================
+-- HDDT System Service - Email outbox
+-- Version: 6.0
+-- Email được ghi cùng transaction với thay đổi nghiệp vụ, worker gửi sau
+-- =====================================================
+
+CREATE TABLE sys_email_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    template_name VARCHAR(100),
+    template_variables TEXT,
+    content MEDIUMTEXT,
+    html BOOLEAN NOT NULL DEFAULT TRUE,
+    category VARCHAR(50),
+    priority VARCHAR(20),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME NOT NULL,
+    last_error TEXT,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    sent_at DATETIME
+);
+
+CREATE INDEX idx_email_outbox_due ON sys_email_outbox(status, next_attempt_at);
@@ -0,0 +1,22 @@
+-- =====================================================
+-- HDDT System Service - Refresh token rotation
+-- Version: 7.0
+-- Mỗi lần refresh thu hồi token cũ và phát hành token mới trong cùng family;
+-- token đã thu hồi bị dùng lại thì thu hồi cả family
+-- =====================================================
+
+ALTER TABLE sys_refresh_token
+    ADD COLUMN family_id BINARY(16) NULL AFTER access_token_hash;
+
+-- Mỗi token hiện có là một family riêng
+UPDATE sys_refresh_token
+SET family_id = UNHEX(REPLACE(UUID(), '-', ''))
+WHERE family_id IS NULL;
+
+ALTER TABLE sys_refresh_token
+    MODIFY COLUMN family_id BINARY(16) NOT NULL,
+    ADD INDEX idx_refresh_family (family_id);
+
+-- =====================================================
+-- END OF MIGRATION
+-- =====================================================
@@ -0,0 +1,127 @@
+package com.example.systemserviceofficial.benchmark;
+
+import com.example.systemserviceofficial.notification.service.EmailTemplateRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput render từng template email (user-019): {@link EmailTemplateRegistry}
+ * (template parse sẵn, khối support/copyright cache) so với render thường cho mỗi message
+ * (resolve/parse lại template và render lại các khối dùng chung).
+ * <p>
+ * Chạy: {@code mvn test-compile} rồi chạy {@link #main} với classpath test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateRenderBenchmark {
+
+    private static final Locale VIETNAMESE = Locale.forLanguageTag("vi-VN");
+
+    @Param({
+        "email/welcome",
+        "email/password-reset",
+        "email/otp",
+        "email/login-notification",
+        "email/password-changed",
+        "email/notification-digest"
+    })
+    private String template;
+
+    private EmailTemplateRegistry registry;
+    private TemplateEngine uncachedEngine;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        registry = new EmailTemplateRegistry(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registry, "preload", List.of(template));
+        ReflectionTestUtils.invokeMethod(registry, "init");
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(false);
+        uncachedEngine = new TemplateEngine();
+        uncachedEngine.setTemplateResolver(resolver);
+
+        variables = new HashMap<>();
+        variables.put("year", 2026);
+        variables.put("supportEmail", "support@hddt.com");
+        variables.put("userName", "Nguyễn Văn A");
+        variables.put("userEmail", "user@example.com");
+        variables.put("userId", 1L);
+        variables.put("loginUrl", "https://hddt.com/login");
+        variables.put("resetUrl", "https://hddt.com/reset-password?token=abc");
+        variables.put("expiryMinutes", 30);
+        variables.put("validityMinutes", 5);
+        variables.put("otpCode", "123456");
+        variables.put("registrationDate", "2026-01-22 10:30:00");
+        variables.put("createdAt", "2026-01-22 10:30:00");
+        variables.put("changedAt", "2026-01-22 10:30:00");
+        variables.put("loginTime", "2026-01-22 10:30:00");
+        variables.put("ipAddress", "10.0.0.1");
+        variables.put("userAgent", "Mozilla/5.0");
+        variables.put("title", "Thông báo");
+        variables.put("windowStart", "10:00");
+        variables.put("windowEnd", "10:10");
+        variables.put("total", 2);
+        variables.put("omitted", 0);
+        variables.put("events", List.of(
+            Map.of("occurredAt", "10:01", "summary", "Đăng nhập mới"),
+            Map.of("occurredAt", "10:05", "summary", "Đổi mật khẩu")));
+    }
+
+    @Benchmark
+    public String registry() {
+        return registry.render(template, variables);
+    }
+
+    @Benchmark
+    public String uncached() {
+        Context fragmentContext = new Context(VIETNAMESE, variables);
+        Map<String, String> fragments = Map.of(
+            "support", uncachedEngine.process("email/fragments/common", Set.of("support"), fragmentContext),
+            "copyright", uncachedEngine.process("email/fragments/common", Set.of("copyright"), fragmentContext));
+        Map<String, Object> model = new HashMap<>(variables);
+        model.put("fragments", fragments);
+        return uncachedEngine.process(template, new Context(VIETNAMESE, model));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EmailTemplateRenderBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
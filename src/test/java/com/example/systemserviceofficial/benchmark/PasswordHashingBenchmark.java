@@ -0,0 +1,68 @@
+package com.example.systemserviceofficial.benchmark;
+
+import com.example.systemserviceofficial.system.config.PasswordHashingProfiles;
+import com.example.systemserviceofficial.system.config.PasswordHashingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí băm mật khẩu theo từng profile (user-003), để chọn cost cho default-profile/role-profiles.
+ * <p>
+ * Chạy: {@code mvn test-compile} rồi chạy {@link #main} với classpath test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "Benchmark@123";
+
+    @Param({"bcrypt-10", "bcrypt-12"})
+    private String profile;
+
+    private PasswordHashingProfiles profiles;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setDefaultProfile("bcrypt-10");
+        properties.setProfiles(Map.of("bcrypt-10", 10, "bcrypt-12", 12));
+        profiles = new PasswordHashingProfiles(properties);
+        encoded = profiles.encode(profile, PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return profiles.encode(profile, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return profiles.delegatingEncoder().matches(PASSWORD, encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PasswordHashingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.systemserviceofficial.notification.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Các template email chèn đúng khối support/copyright đã render sẵn theo year/supportEmail (user-019).
+ */
+class EmailTemplateRegistryTest {
+
+    static final List<String> TEMPLATES = List.of(
+        "email/welcome",
+        "email/password-reset",
+        "email/otp",
+        "email/login-notification",
+        "email/password-changed",
+        "email/notification-digest"
+    );
+
+    private EmailTemplateRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new EmailTemplateRegistry(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registry, "preload", TEMPLATES);
+        registry.init();
+    }
+
+    @ParameterizedTest
+    @MethodSource("templates")
+    void rendersSharedBlocksForGivenYearAndSupportEmail(String template) {
+        String html = registry.render(template, variables(2031, "help@example.org"));
+
+        assertThat(html)
+            .contains("href=\"mailto:help@example.org\"")
+            .contains(">help@example.org</a>")
+            .contains("<span>2031</span> HDDT Company. All rights reserved.")
+            .doesNotContain("th:utext")
+            .doesNotContain("support@hddt.com");
+    }
+
+    @Test
+    void fragmentsAreKeyedByYearAndSupportEmail() {
+        String first = registry.render("email/otp", variables(2031, "help@example.org"));
+        String second = registry.render("email/otp", variables(2032, "care@example.org"));
+
+        assertThat(first).contains("<span>2031</span>").contains("mailto:help@example.org");
+        assertThat(second).contains("<span>2032</span>").contains("mailto:care@example.org")
+            .doesNotContain("2031").doesNotContain("help@example.org");
+    }
+
+    static List<String> templates() {
+        return TEMPLATES;
+    }
+
+    static Map<String, Object> variables(int year, String supportEmail) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("year", year);
+        variables.put("supportEmail", supportEmail);
+        variables.put("userName", "Alice");
+        variables.put("userEmail", "alice@example.com");
+        variables.put("userId", 7L);
+        variables.put("loginUrl", "https://example.com/login");
+        variables.put("resetUrl", "https://example.com/reset?token=abc");
+        variables.put("expiryMinutes", 30);
+        variables.put("validityMinutes", 5);
+        variables.put("otpCode", "123456");
+        variables.put("registrationDate", "2031-01-01 08:00:00");
+        variables.put("createdAt", "2031-01-01 08:00:00");
+        variables.put("changedAt", "2031-01-01 08:00:00");
+        variables.put("loginTime", "2031-01-01 08:00:00");
+        variables.put("ipAddress", "10.0.0.1");
+        variables.put("userAgent", "JUnit");
+        variables.put("title", "Thông báo");
+        variables.put("windowStart", "08:00");
+        variables.put("windowEnd", "08:10");
+        variables.put("total", 2);
+        variables.put("omitted", 0);
+        variables.put("events", List.of(
+            Map.of("occurredAt", "08:01", "summary", "Đăng nhập mới"),
+            Map.of("occurredAt", "08:05", "summary", "Đổi mật khẩu")));
+        return variables;
+    }
+}
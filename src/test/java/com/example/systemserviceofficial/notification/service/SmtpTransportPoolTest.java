@@ -0,0 +1,150 @@
+package com.example.systemserviceofficial.notification.service;
+
+import com.example.systemserviceofficial.support.StubSmtpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pool kết nối SMTP trên một server SMTP giả trong process (user-018):
+ * dùng lại kết nối, kết nối lại khi bị ngắt, thay kết nối sau max-messages-per-connection,
+ * và so sánh tốc độ gửi có/không có pool.
+ */
+@Slf4j
+class SmtpTransportPoolTest {
+
+    private StubSmtpServer server;
+    private JavaMailSenderImpl mailSender;
+    private SimpleMeterRegistry meterRegistry;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.getPort());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        properties.put("mail.smtp.timeout", "2000");
+        mailSender.setJavaMailProperties(properties);
+
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new SmtpTransportPool(mailSender, meterRegistry);
+        ReflectionTestUtils.setField(pool, "maxSize", 2);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(pool, "validateAfterIdleMs", 60000L);
+        ReflectionTestUtils.setField(pool, "maxIdleMs", 60000L);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 100);
+        pool.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+        server.close();
+    }
+
+    @Test
+    void connectionIsReusedAcrossBatches() throws Exception {
+        assertThat(pool.send(messages(3))).isEmpty();
+        assertThat(pool.send(messages(3))).isEmpty();
+
+        assertThat(server.messages()).isEqualTo(6);
+        assertThat(server.connections()).isEqualTo(1);
+    }
+
+    @Test
+    void staleIdleConnectionIsReplacedBeforeUse() throws Exception {
+        ReflectionTestUtils.setField(pool, "validateAfterIdleMs", 0L);
+        assertThat(pool.send(messages(1))).isEmpty();
+
+        server.dropConnections();
+        Thread.sleep(20);
+
+        assertThat(pool.send(messages(2))).isEmpty();
+        assertThat(server.messages()).isEqualTo(3);
+        assertThat(server.connections()).isEqualTo(2);
+        assertThat(meterRegistry.counter("smtp.pool.validation.failures").count()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionDroppedMidBatchFailsOnlyTheCurrentMessage() throws Exception {
+        server.dropAfterMessages(2);
+        List<MimeMessage> batch = messages(4);
+
+        Map<MimeMessage, Exception> failures = pool.send(batch);
+
+        // Message thứ 3 gặp kết nối đã đóng; message thứ 4 đi qua kết nối mới
+        assertThat(failures).containsOnlyKeys(batch.get(2));
+        assertThat(server.messages()).isEqualTo(3);
+        assertThat(server.connections()).isEqualTo(2);
+    }
+
+    @Test
+    void connectionIsRecycledAfterMaxMessages() throws Exception {
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 2);
+
+        assertThat(pool.send(messages(5))).isEmpty();
+
+        assertThat(server.messages()).isEqualTo(5);
+        assertThat(server.connections()).isEqualTo(3);
+    }
+
+    @Test
+    void pooledSendsUseOneConnectionInsteadOfOnePerMessage() throws Exception {
+        int count = 200;
+        int batchSize = 20;
+
+        List<MimeMessage> unpooled = messages(count);
+        long started = System.nanoTime();
+        for (MimeMessage message : unpooled) {
+            mailSender.send(message);
+        }
+        double unpooledRate = count / ((System.nanoTime() - started) / 1e9);
+        int unpooledConnections = server.connections();
+
+        server.reset();
+        List<MimeMessage> pooled = messages(count);
+        started = System.nanoTime();
+        for (int i = 0; i < count; i += batchSize) {
+            assertThat(pool.send(pooled.subList(i, i + batchSize))).isEmpty();
+        }
+        double pooledRate = count / ((System.nanoTime() - started) / 1e9);
+
+        log.info("Stub SMTP throughput: unpooled={} msg/s ({} connections), pooled={} msg/s ({} connections)",
+            Math.round(unpooledRate), unpooledConnections, Math.round(pooledRate), server.connections());
+        assertThat(unpooledConnections).isEqualTo(count);
+        assertThat(server.connections()).isEqualTo(1);
+        assertThat(server.messages()).isEqualTo(count);
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom("noreply@example.com");
+            helper.setTo("user" + i + "@example.com");
+            helper.setSubject("Test " + i);
+            helper.setText("<p>Hello " + i + "</p>", true);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.systemserviceofficial.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ghi lại mọi câu SQL Hibernate gửi xuống JDBC, để test kiểm tra số statement
+ * và các cột được UPDATE. Được Hibernate khởi tạo qua
+ * {@code hibernate.session_factory.statement_inspector} nên trạng thái là static.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static int count() {
+        return STATEMENTS.size();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static List<String> updates() {
+        return STATEMENTS.stream()
+            .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("update"))
+            .toList();
+    }
+}
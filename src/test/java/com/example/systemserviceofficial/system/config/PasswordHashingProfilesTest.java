@@ -0,0 +1,64 @@
+package com.example.systemserviceofficial.system.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Chọn profile băm theo role và nhận biết hash cần nâng cấp (user-003).
+ */
+class PasswordHashingProfilesTest {
+
+    private PasswordHashingProfiles profiles;
+
+    @BeforeEach
+    void setUp() {
+        profiles = new PasswordHashingProfiles(properties("bcrypt-5", Map.of("SERVICE", "bcrypt-4")));
+    }
+
+    @Test
+    void profileFollowsRoleMappingThenDefault() {
+        assertThat(profiles.profileFor(List.of("USER", "service"))).isEqualTo("bcrypt-4");
+        assertThat(profiles.profileFor(List.of("USER"))).isEqualTo("bcrypt-5");
+        assertThat(profiles.profileFor(null)).isEqualTo("bcrypt-5");
+    }
+
+    @Test
+    void encodeStoresProfileIdAndCost() {
+        String encoded = profiles.encode("bcrypt-4", "secret");
+
+        assertThat(encoded).startsWith("{bcrypt-4}$2a$04$");
+        assertThat(profiles.delegatingEncoder().matches("secret", encoded)).isTrue();
+        assertThat(profiles.needsUpgrade(encoded, "bcrypt-4")).isFalse();
+        assertThat(profiles.needsUpgrade(encoded, "bcrypt-5")).isTrue();
+    }
+
+    @Test
+    void legacyHashWithoutPrefixStillMatchesButNeedsUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(profiles.delegatingEncoder().matches("secret", legacy)).isTrue();
+        assertThat(profiles.needsUpgrade(legacy, "bcrypt-5")).isTrue();
+        assertThat(profiles.needsUpgrade(null, "bcrypt-5")).isTrue();
+    }
+
+    @Test
+    void unknownRoleProfileIsRejected() {
+        assertThatThrownBy(() -> new PasswordHashingProfiles(properties("bcrypt-5", Map.of("SERVICE", "bcrypt-99"))))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    static PasswordHashingProperties properties(String defaultProfile, Map<String, String> roleProfiles) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setDefaultProfile(defaultProfile);
+        properties.setProfiles(Map.of("bcrypt-4", 4, "bcrypt-5", 5));
+        properties.setRoleProfiles(roleProfiles);
+        return properties;
+    }
+}
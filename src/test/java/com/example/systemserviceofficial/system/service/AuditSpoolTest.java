@@ -0,0 +1,94 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.system.entity.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Khôi phục spool sau crash và bỏ qua bản ghi hỏng (user-013).
+ */
+class AuditSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditSpool spool;
+
+    @AfterEach
+    void tearDown() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedAndLaterAppendsAreReplayed() throws IOException {
+        spool = openSpool();
+        spool.append(List.of(auditLog("a"), auditLog("b")));
+        int end = spool.readBatch(10).endOffset();
+        spool.close();
+
+        // Crash giữa chừng: header của bản ghi tiếp theo đã ghi, payload thì chưa
+        writeAt(end, ByteBuffer.allocate(8).putInt(120).putInt(0x1234_5678).flip());
+
+        spool = openSpool();
+        spool.append(List.of(auditLog("c")));
+        AuditSpool.Batch batch = spool.readBatch(10);
+
+        assertThat(batch.records()).extracting(AuditLog::getAction).containsExactly("a", "b", "c");
+        spool.acknowledge(batch);
+        assertThat(spool.hasPending()).isFalse();
+    }
+
+    @Test
+    void corruptRecordIsSkippedWithoutDroppingTheRestOfTheSegment() throws IOException {
+        spool = openSpool();
+        spool.append(List.of(auditLog("a")));
+        int second = spool.readBatch(10).endOffset();
+        spool.append(List.of(auditLog("b"), auditLog("c")));
+
+        // Hỏng một byte payload của bản ghi thứ hai, sau khi spool đã mở
+        writeAt(second + 8 + 1, ByteBuffer.wrap(new byte[] {(byte) 0xFF}));
+
+        AuditSpool.Batch batch = spool.readBatch(10);
+
+        assertThat(batch.records()).extracting(AuditLog::getAction).containsExactly("a", "c");
+    }
+
+    private AuditSpool openSpool() throws IOException {
+        AuditSpool opened = new AuditSpool(directory.toString(), 1, new SimpleMeterRegistry());
+        opened.open();
+        return opened;
+    }
+
+    private void writeAt(int offset, ByteBuffer bytes) throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+
+    private static AuditLog auditLog(String action) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setAction(action);
+        auditLog.setUsername("alice");
+        auditLog.setStatus("SUCCESS");
+        return auditLog;
+    }
+}
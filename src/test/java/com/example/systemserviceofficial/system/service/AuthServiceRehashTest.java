@@ -0,0 +1,139 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.commonserviceofficial.security.JwtTokenProvider;
+import com.example.systemserviceofficial.notification.service.SystemEmailService;
+import com.example.systemserviceofficial.system.config.PasswordHashingProfiles;
+import com.example.systemserviceofficial.system.config.PasswordHashingProperties;
+import com.example.systemserviceofficial.system.dto.request.LoginRequest;
+import com.example.systemserviceofficial.system.entity.User;
+import com.example.systemserviceofficial.system.repository.RoleRepository;
+import com.example.systemserviceofficial.system.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Đăng nhập thành công nâng hash lên profile của role (user-003).
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceRehashTest {
+
+    private static final long USER_ID = 7L;
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private RoleRepository roleRepository;
+    @Mock
+    private SystemEmailService systemEmailService;
+    @Mock
+    private UserAuthorityService userAuthorityService;
+    @Mock
+    private LoginAttemptStore loginAttemptStore;
+    @Mock
+    private LoginMetadataBuffer loginMetadataBuffer;
+
+    private PasswordHashingProfiles profiles;
+    private PasswordHashingService passwordHashingService;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setDefaultProfile("bcrypt-4");
+        properties.setProfiles(Map.of("bcrypt-4", 4, "bcrypt-5", 5));
+        properties.setRoleProfiles(Map.of("ADMIN", "bcrypt-5"));
+        profiles = new PasswordHashingProfiles(properties);
+
+        passwordHashingService = new PasswordHashingService(
+            profiles.delegatingEncoder(), profiles, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 4);
+        passwordHashingService.init();
+
+        authService = new AuthService(
+            userRepository, jwtTokenProvider, passwordHashingService, tokenBlacklistService,
+            refreshTokenService, roleRepository, systemEmailService, userAuthorityService,
+            loginAttemptStore, loginMetadataBuffer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void legacyHashIsUpgradedToRoleProfileOnLogin() {
+        givenUser(new BCryptPasswordEncoder(4).encode("secret"), "ADMIN");
+
+        authService.login(loginRequest("secret"), null, "junit");
+
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq(USER_ID), hash.capture(), any(LocalDateTime.class));
+        assertThat(hash.getValue()).startsWith("{bcrypt-5}$2a$05$");
+        assertThat(profiles.delegatingEncoder().matches("secret", hash.getValue())).isTrue();
+    }
+
+    @Test
+    void hashOnDefaultProfileIsUpgradedWhenRoleNeedsStrongerProfile() {
+        givenUser(profiles.encode("bcrypt-4", "secret"), "ADMIN");
+
+        authService.login(loginRequest("secret"), null, "junit");
+
+        verify(userRepository).updatePassword(eq(USER_ID), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void currentHashIsLeftAlone() {
+        givenUser(profiles.encode("bcrypt-4", "secret"), "USER");
+
+        authService.login(loginRequest("secret"), null, "junit");
+
+        verify(userRepository, never()).updatePassword(anyLong(), anyString(), any());
+    }
+
+    private void givenUser(String encodedPassword, String roleCode) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("alice");
+        user.setPassword(encodedPassword);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userAuthorityService.getAuthorities(USER_ID))
+            .thenReturn(new UserAuthorities(USER_ID, List.of(roleCode), Set.of()));
+    }
+
+    private static LoginRequest loginRequest(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("alice");
+        request.setPassword(password);
+        return request;
+    }
+}
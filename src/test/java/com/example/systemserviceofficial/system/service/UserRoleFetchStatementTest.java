@@ -0,0 +1,116 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.support.SqlStatementCounter;
+import com.example.systemserviceofficial.system.dto.response.UserResponse;
+import com.example.systemserviceofficial.system.entity.Permission;
+import com.example.systemserviceofficial.system.entity.Role;
+import com.example.systemserviceofficial.system.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Số statement khi nạp role/permission (user-009): không được tăng theo số user hay số role.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({UserService.class, UserAuthorityLoader.class})
+class UserRoleFetchStatementTest {
+
+    private static final int USER_COUNT = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserAuthorityLoader userAuthorityLoader;
+
+    @MockitoBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockitoBean
+    private UserAuthorityService userAuthorityService;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Permission read = permission("USER_READ");
+        Permission write = permission("USER_WRITE");
+        Role admin = role("ADMIN", read, write);
+        Role member = role("MEMBER", read);
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("{bcrypt-10}hash");
+            user.setEmail("user" + i + "@example.com");
+            user.setRoles(Set.of(admin, member));
+            entityManager.persist(user);
+            userIds.add(user.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    void loadAuthoritiesUsesOneStatement() {
+        UserAuthorities authorities = userAuthorityLoader.load(userIds.get(0));
+
+        assertThat(authorities.roleCodes()).containsExactlyInAnyOrder("ADMIN", "MEMBER");
+        assertThat(authorities.permissionCodes()).containsExactlyInAnyOrder("USER_READ", "USER_WRITE");
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIdFetchesRolesWithUser() {
+        UserResponse user = userService.findById(userIds.get(0));
+
+        assertThat(user.getRoles()).hasSize(2);
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void listingDoesNotQueryRolesPerUser() {
+        Page<UserResponse> page = userService.findAll(PageRequest.of(0, USER_COUNT - 1));
+
+        assertThat(page.getContent()).hasSize(USER_COUNT - 1)
+            .allSatisfy(user -> assertThat(user.getRoles()).hasSize(2));
+        assertThat(page.getTotalElements()).isEqualTo(USER_COUNT);
+        // id của trang + count + một truy vấn IN kèm roles
+        assertThat(SqlStatementCounter.count()).isEqualTo(3);
+    }
+
+    private Permission permission(String code) {
+        Permission permission = new Permission();
+        permission.setCode(code);
+        permission.setName(code);
+        entityManager.persist(permission);
+        return permission;
+    }
+
+    private Role role(String code, Permission... permissions) {
+        Role role = new Role();
+        role.setCode(code);
+        role.setName(code);
+        role.setPermissions(Set.of(permissions));
+        entityManager.persist(role);
+        return role;
+    }
+}
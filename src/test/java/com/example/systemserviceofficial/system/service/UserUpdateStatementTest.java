@@ -0,0 +1,111 @@
+package com.example.systemserviceofficial.system.service;
+
+import com.example.systemserviceofficial.support.SqlStatementCounter;
+import com.example.systemserviceofficial.system.dto.request.UpdateUserRequest;
+import com.example.systemserviceofficial.system.entity.User;
+import com.example.systemserviceofficial.system.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Các UPDATE trên sys_user chỉ ghi cột thay đổi (user-024).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserService.class)
+class UserUpdateStatementTest {
+
+    private static final Pattern SET_CLAUSE = Pattern.compile(
+        "(?is)^\\s*update\\s+sys_user(?:\\s+\\w+)?\\s+set\\s+(.+?)\\s+where\\s");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockitoBean
+    private UserAuthorityService userAuthorityService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword("{bcrypt-10}old");
+        user.setEmail("alice@example.com");
+        user.setFullName("Alice");
+        user.setResetToken("reset-token");
+        user.setResetTokenExpiry(LocalDateTime.now().plusMinutes(30));
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+        userId = user.getId();
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    void profileUpdateWritesOnlyChangedColumns() {
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setFullName("Alice Nguyen");
+
+        userService.update(userId, request);
+        entityManager.flush();
+
+        assertThat(SqlStatementCounter.updates()).hasSize(1);
+        assertThat(updatedColumns(SqlStatementCounter.updates().get(0)))
+            .containsExactlyInAnyOrder("full_name", "updated_at");
+    }
+
+    @Test
+    void passwordUpdateIsSingleTargetedStatement() {
+        int updated = userRepository.updatePassword(userId, "{bcrypt-12}new", LocalDateTime.now());
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+        assertThat(updatedColumns(SqlStatementCounter.updates().get(0)))
+            .containsExactlyInAnyOrder("password", "updated_at");
+    }
+
+    @Test
+    void resetTokenCanBeUsedOnce() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(userRepository.resetPassword(userId, "reset-token", "{bcrypt-10}first", now)).isEqualTo(1);
+        assertThat(userRepository.resetPassword(userId, "reset-token", "{bcrypt-10}second", now)).isZero();
+        assertThat(SqlStatementCounter.updates()).hasSize(2);
+        assertThat(SqlStatementCounter.count()).isEqualTo(2);
+    }
+
+    private static List<String> updatedColumns(String sql) {
+        Matcher matcher = SET_CLAUSE.matcher(sql);
+        assertThat(matcher.find()).as("UPDATE sys_user statement: %s", sql).isTrue();
+        return Arrays.stream(matcher.group(1).split(","))
+            .map(assignment -> assignment.split("=")[0].trim().toLowerCase(Locale.ROOT))
+            // Bỏ alias bảng (u1_0.password) nếu có
+            .map(column -> column.substring(column.lastIndexOf('.') + 1))
+            .toList();
+    }
+}